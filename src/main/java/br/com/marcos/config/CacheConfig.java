@@ -0,0 +1,12 @@
+package br.com.marcos.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    //Read-through cache of Person entities keyed by id, sized by spring.cache.caffeine.spec
+    public static final String PERSON_CACHE = "person";
+}
@@ -0,0 +1,72 @@
+package br.com.marcos.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/hibernatecache: hits, misses, puts and hit ratio of every second-level cache region,
+ * plus the totals of the entity, query and update timestamps caches. DELETE resets the counters,
+ * so a ratio can be measured over a single run. Needs hibernate.generate_statistics.
+ */
+@Component
+@Endpoint(id = "hibernatecache")
+@Profile("!reactive")
+public class HibernateCacheEndpoint {
+
+    public record RegionStats(long hits, long misses, long puts, double hitRatio) {
+
+        static RegionStats of(long hits, long misses, long puts) {
+            long requests = hits + misses;
+            return new RegionStats(hits, misses, puts, requests == 0 ? 0.0 : (double) hits / requests);
+        }
+    }
+
+    public record CacheStats(boolean statisticsEnabled, RegionStats secondLevel, RegionStats queries,
+                             RegionStats updateTimestamps, Map<String, RegionStats> regions) {}
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public CacheStats stats() {
+        Statistics statistics = statistics();
+        Map<String, RegionStats> regions = new LinkedHashMap<>();
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.put(name, RegionStats.of(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+        return new CacheStats(statistics.isStatisticsEnabled(),
+                RegionStats.of(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                        statistics.getSecondLevelCachePutCount()),
+                RegionStats.of(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                        statistics.getQueryCachePutCount()),
+                RegionStats.of(statistics.getUpdateTimestampsCacheHitCount(), statistics.getUpdateTimestampsCacheMissCount(),
+                        statistics.getUpdateTimestampsCachePutCount()),
+                regions);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics().clear();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.marcos.config;
+
+import org.springframework.http.MediaType;
+
+//Binary encodings offered next to JSON; Spring MVC registers the Jackson Smile and CBOR converters
+//by itself once jackson-dataformat-smile and jackson-dataformat-cbor are on the classpath
+public final class MediaTypes {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    public static final String APPLICATION_CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+
+    private MediaTypes() {
+    }
+}
@@ -1,33 +1,245 @@
 package br.com.marcos.controllers;
 
+import br.com.marcos.config.MediaTypes;
+import br.com.marcos.exceptions.BadRequestException;
+import br.com.marcos.exceptions.PreconditionFailedException;
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.ImportSummary;
 import br.com.marcos.model.Person;
+import br.com.marcos.services.PersonAsyncServices;
+import br.com.marcos.services.PersonJsonCache;
 import br.com.marcos.services.PersonServices;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/person")
+@Profile("!reactive")
 public class PersonController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private PersonServices service;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private PersonJsonCache jsonCache;
+    @Autowired
+    private PersonAsyncServices asyncService;
+
+    @Value("${app.async.find-by-id-timeout-ms:2000}")
+    private long findByIdTimeoutMs;
+    @Value("${app.async.find-page-timeout-ms:5000}")
+    private long findPageTimeoutMs;
+    @Value("${app.async.create-timeout-ms:5000}")
+    private long createTimeoutMs;
 
     @GetMapping(value = "/{id}",
-            produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Person> findById(@PathVariable(value = "id")Long id) throws Exception {
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> findById(@PathVariable(value = "id")Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) throws Exception {
         try {
-            return ResponseEntity.ok(service.findById(id));
+            MediaType type = negotiate(accept);
+            if (notModified(id, type, ifNoneMatch, request)) {
+                return null;
+            }
+            if (!MediaType.APPLICATION_JSON.equals(type)) {
+                Person person = service.findById(id);
+                return okWithETag(person.getVersion(), type).contentType(type).body(person);
+            }
+            //Pre-serialized bytes go straight to the response, Jackson only runs on a miss
+            PersonJsonCache.Entry json = jsonCache.get(id);
+            if (json == null) {
+                json = jsonCache.get(service.findById(id));
+            }
+            return okWithETag(json.version(), type).contentType(type).body(json.bytes());
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
-    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<Person> findAll() {
-        return service.findAll() ;
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> findAll(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "" + PersonServices.DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Slice<Person> page = service.findPage(after, limit);
+        MediaType type = negotiate(accept);
+        if (!MediaType.APPLICATION_JSON.equals(type)) {
+            return pageResponse(page, type).contentType(type).body(page.getContent());
+        }
+        return pageResponse(page, type).contentType(type).body(jsonCache.array(page.getContent()));
+    }
+    //Async variants: the servlet thread is released while the call waits on the DB executor
+    @GetMapping(value = "/async/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<byte[]>> findByIdAsync(@PathVariable(value = "id") Long id) {
+        return deferred(asyncService.findById(id), findByIdTimeoutMs, person -> {
+            PersonJsonCache.Entry json = jsonCache.get(person);
+            return okWithETag(json.version(), MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON).body(json.bytes());
+        });
+    }
+    @GetMapping(value = "/async", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<byte[]>> findAllAsync(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "" + PersonServices.DEFAULT_PAGE_SIZE) int limit) {
+        return deferred(asyncService.findPage(after, limit), findPageTimeoutMs,
+                page -> pageResponse(page, MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)
+                        .body(jsonCache.array(page.getContent())));
+    }
+    @PostMapping(value = "/async", produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<Person> createAsync(@RequestBody Person person) {
+        return deferred(asyncService.create(person), createTimeoutMs, Function.identity());
+    }
+    @GetMapping(value = "/search", params = "q",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public List<Person> fuzzySearch(@RequestParam(value = "q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return service.fuzzySearch(query, limit);
+    }
+    @GetMapping(value = "/search",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<Person>> search(
+            @RequestParam(value = "firstName", required = false) String firstName,
+            @RequestParam(value = "lastName", required = false) String lastName,
+            @RequestParam(value = "email", required = false) String email,
+            @RequestParam(value = "gender", required = false) String gender,
+            @RequestParam(value = "address", required = false) String addressPrefix,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "" + PersonServices.DEFAULT_PAGE_SIZE) int limit) {
+        Slice<Person> page = service.search(firstName, lastName, email, gender, addressPrefix, after, limit);
+        List<Person> people = page.getContent();
+        var response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(people.get(people.size() - 1).getId()));
+        }
+        return response.body(people);
+    }
+    @GetMapping(value = "/{id}", params = "fields",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Map<String, Object>> findFieldsById(@PathVariable(value = "id")Long id,
+            @RequestParam(value = "fields") String fields) {
+        try {
+            return ResponseEntity.ok(service.findFieldsById(id, fields));
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    @GetMapping(params = "fields",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<Map<String, Object>>> findAllFields(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "" + PersonServices.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(value = "fields") String fields) {
+        Slice<Map<String, Object>> page = service.findFieldsPage(after, limit, fields);
+        List<Map<String, Object>> rows = page.getContent();
+        var response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(rows.get(rows.size() - 1).get("id")));
+        }
+        return response.body(rows);
+    }
+    @GetMapping(params = "email",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Person> findByEmail(@RequestParam(value = "email") String email) {
+        try {
+            return ResponseEntity.ok(service.findByEmail(email));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    @GetMapping(value = "/export",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = mapper.createGenerator(out)) {
+                //NDJSON: one object per line and no enclosing array, so consumers can process it line by line
+                if (ndjson) {
+                    generator.setRootValueSeparator(null);
+                } else {
+                    generator.writeStartArray();
+                }
+                service.streamAll(person -> {
+                    try {
+                        generator.writeObject(person);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+    //Server-sent events of committed changes; a reconnecting EventSource resumes from its Last-Event-ID
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(
+            @RequestParam(value = "since", required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = since != null ? since : lastEventId != null ? lastEventId : 0L;
+        if (from < 0) {
+            throw new BadRequestException("since must not be negative");
+        }
+        return service.subscribeToChanges(from);
+    }
+    //Accepts NDJSON or a JSON array, parsed incrementally from the request stream and written in chunks
+    @PostMapping(value = "/import",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ImportSummary importAll(InputStream body) throws IOException {
+        try (JsonParser parser = mapper.createParser(body)) {
+            //readValues(parser) does not unwrap a root array: consume its START_ARRAY, the iterator then reads
+            //the elements and stops at the matching END_ARRAY
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                parser.clearCurrentToken();
+            }
+            try (MappingIterator<Person> people = mapper.readerFor(Person.class).readValues(parser)) {
+                return service.importAll(people);
+            }
+        } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+            throw new BadRequestException("Malformed import stream: " + e.getMessage());
+        }
     }
     @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -36,16 +248,162 @@ public class PersonController {
     }
     @PutMapping(produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Person> update(@RequestBody Person person) throws Exception {
-        try {
-            return ResponseEntity.ok(service.update(person));
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+    //Errors go to the exception handler: 404 for a missing row, 412 for a stale version, 503 when a
+    //write-behind update is not committed within its ack timeout and 500 when its flush failed
+    public ResponseEntity<Person> update(@RequestBody Person person,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws Exception {
+        Long expectedVersion = parseETag(ifMatch);
+        if (expectedVersion != null) {
+            person.setVersion(expectedVersion);
         }
+        boolean deferred = person.getVersion() == null && service.defersUpdates();
+        Person updated = service.update(person);
+        if (deferred) {
+            //Buffered by the write-behind, not committed yet
+            return ResponseEntity.accepted().body(updated);
+        }
+        return okWithETag(updated.getVersion(), MediaType.APPLICATION_JSON).body(updated);
+    }
+    //JSON merge patch: only the fields present are changed, If-Match makes it conditional
+    @PatchMapping(value = "/{id}",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<Person> patch(@PathVariable(value = "id")Long id,
+            @RequestBody Map<String, Object> changes,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws Exception {
+        Person patched = service.patch(id, changes, parseETag(ifMatch));
+        return okWithETag(patched.getVersion(), MediaType.APPLICATION_JSON).body(patched);
+    }
+    @PostMapping(value = "/batch",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE},
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public List<BatchItemResult> createAll(@RequestBody List<Person> people) {
+        return service.createAll(people);
+    }
+    @PutMapping(value = "/batch",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE},
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public List<BatchItemResult> updateAll(@RequestBody List<Person> people) {
+        return service.updateAll(people);
+    }
+    @DeleteMapping(value = "/batch",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE},
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE})
+    public List<BatchItemResult> deleteAll(@RequestBody List<Long> ids) {
+        return service.deleteAll(ids);
     }
     @DeleteMapping(value = "{id}")
-    public ResponseEntity<?> delete(@PathVariable(value = "id")Long id) throws Exception {
-        service.delete(id);
+    public ResponseEntity<?> delete(@PathVariable(value = "id")Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws Exception {
+        service.delete(id, parseETag(ifMatch));
         return ResponseEntity.noContent().build();
     }
+
+    //On timeout the client gets a 503 and a call still queued on the DB executor is cancelled before it takes a connection
+    private static <S, T> DeferredResult<T> deferred(CompletableFuture<S> call, long timeoutMs, Function<S, T> render) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMs);
+        result.onTimeout(() -> call.cancel(false));
+        call.thenApply(render).whenComplete((value, error) -> {
+            if (error == null) {
+                result.setResult(value);
+            } else {
+                result.setErrorResult(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        return result;
+    }
+
+    //Revalidation only needs the version column, the row is loaded and serialized when it changed
+    private boolean notModified(Long id, MediaType type, String ifNoneMatch, WebRequest request) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        Long version = service.findVersion(id);
+        return version != null && request.checkNotModified(eTag(version, type));
+    }
+
+    //A 304 for an unchanged page is answered before the body is serialized
+    private static ResponseEntity.BodyBuilder pageResponse(Slice<Person> page, MediaType type) {
+        List<Person> people = page.getContent();
+        var response = ResponseEntity.ok().eTag(pageETag(people, type));
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(people.get(people.size() - 1).getId()));
+        }
+        return response;
+    }
+
+    //JSON stays the default for wildcards, a binary encoding is used only when named with a higher quality
+    private static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        double json = 0;
+        double smile = 0;
+        double cbor = 0;
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            if (type.equalsTypeAndSubtype(MediaTypes.APPLICATION_SMILE)) {
+                smile = Math.max(smile, type.getQualityValue());
+            } else if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                cbor = Math.max(cbor, type.getQualityValue());
+            } else if (type.includes(MediaType.APPLICATION_JSON)) {
+                json = Math.max(json, type.getQualityValue());
+            }
+        }
+        if (Math.max(smile, cbor) <= json) {
+            return MediaType.APPLICATION_JSON;
+        }
+        return cbor > smile ? MediaType.APPLICATION_CBOR : MediaTypes.APPLICATION_SMILE;
+    }
+
+    private static ResponseEntity.BodyBuilder okWithETag(Long version, MediaType type) {
+        var response = ResponseEntity.ok();
+        if (version != null) {
+            response.eTag(eTag(version, type));
+        }
+        return response;
+    }
+
+    //Each encoding of a version is a different representation, so it gets its own strong ETag;
+    //JSON keeps the bare version that clients send back in If-Match
+    private static String eTag(Long version, MediaType type) {
+        return version + eTagSuffix(type);
+    }
+
+    private static String eTagSuffix(MediaType type) {
+        if (MediaType.APPLICATION_CBOR.equals(type)) {
+            return "-cbor";
+        }
+        return MediaTypes.APPLICATION_SMILE.equals(type) ? "-smile" : "";
+    }
+
+    private static String pageETag(List<Person> people, MediaType type) {
+        long hash = 1;
+        for (Person person : people) {
+            hash = 31 * hash + Objects.hashCode(person.getId());
+            hash = 31 * hash + Objects.hashCode(person.getVersion());
+        }
+        return "W/\"" + Long.toHexString(hash) + eTagSuffix(type) + "\"";
+    }
+
+    //If-Match carries the version we handed out as ETag, "*" or no header means unconditional
+    private static Long parseETag(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        etag = etag.replace("\"", "");
+        //The version is the same whichever encoding the ETag was handed out for
+        int suffix = etag.indexOf('-');
+        if (suffix > 0) {
+            etag = etag.substring(0, suffix);
+        }
+        try {
+            return Long.valueOf(etag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + ifMatch);
+        }
+    }
 }
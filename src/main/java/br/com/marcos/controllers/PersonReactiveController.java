@@ -0,0 +1,96 @@
+package br.com.marcos.controllers;
+
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.Person;
+import br.com.marcos.services.PersonReactiveServices;
+import br.com.marcos.services.PersonServices;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+//Non-blocking twin of PersonController, active with --spring.profiles.active=reactive
+@RestController
+@Profile("reactive")
+@RequestMapping("/person")
+public class PersonReactiveController {
+
+    @Autowired
+    private PersonReactiveServices service;
+
+    @GetMapping(value = "/{id}",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Person>> findById(@PathVariable(value = "id")Long id) {
+        return service.findById(id)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Person>>> findAll(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "" + PersonServices.DEFAULT_PAGE_SIZE) int limit) {
+        return service.findPage(after, limit)
+                .map(page -> {
+                    List<Person> people = page.getContent();
+                    var response = ResponseEntity.ok();
+                    if (page.hasNext()) {
+                        response.header(PersonController.NEXT_CURSOR_HEADER,
+                                String.valueOf(people.get(people.size() - 1).getId()));
+                    }
+                    return response.body(people);
+                });
+    }
+    @GetMapping(params = "email",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Person>> findByEmail(@RequestParam(value = "email") String email) {
+        return service.findByEmail(email)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+    @GetMapping(value = "/export",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Person> export() {
+        return service.streamAll();
+    }
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Person> create(@RequestBody Person person) {
+        return service.create(person);
+    }
+    @PutMapping(produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Person>> update(@RequestBody Person person) {
+        return service.update(person)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+    @PostMapping(value = "/batch",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<BatchItemResult> createAll(@RequestBody List<Person> people) {
+        return service.createAll(people);
+    }
+    @PutMapping(value = "/batch",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<BatchItemResult> updateAll(@RequestBody List<Person> people) {
+        return service.updateAll(people);
+    }
+    @DeleteMapping(value = "/batch",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<BatchItemResult> deleteAll(@RequestBody List<Long> ids) {
+        return service.deleteAll(ids);
+    }
+    @DeleteMapping(value = "{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable(value = "id")Long id) {
+        return service.delete(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+}
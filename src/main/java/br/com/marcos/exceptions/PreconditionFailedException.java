@@ -0,0 +1,16 @@
+package br.com.marcos.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException(String ex) {
+        super(ex);
+    }
+}
@@ -1,7 +1,13 @@
 package br.com.marcos.exceptions.handler;
 
+import br.com.marcos.exceptions.BadRequestException;
 import br.com.marcos.exceptions.ExceptionResponse;
+import br.com.marcos.exceptions.PreconditionFailedException;
 import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.exceptions.ServiceUnavailableException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -11,9 +17,11 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import java.util.Date;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 @RestController
+@Profile("!reactive")
 public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(Exception.class)
@@ -26,4 +34,32 @@ public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExce
         ExceptionResponse exceptionResponse = new ExceptionResponse(new Date(),ex.getMessage(), request.getDescription(false));
         return new ResponseEntity<>(exceptionResponse, HttpStatus.NOT_FOUND);
     }
+    @ExceptionHandler(PreconditionFailedException.class)
+    public final ResponseEntity<ExceptionResponse> handlePreconditionFailedExceptions(Exception ex, WebRequest request){
+        ExceptionResponse exceptionResponse = new ExceptionResponse(new Date(),ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(exceptionResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+    //An unconditional write kept losing to concurrent updates of the same row, the client may read and retry
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public final ResponseEntity<ExceptionResponse> handleOptimisticLockingFailureExceptions(Exception ex, WebRequest request){
+        ExceptionResponse exceptionResponse = new ExceptionResponse(new Date(),ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(exceptionResponse, HttpStatus.CONFLICT);
+    }
+    //The DB executor of the async endpoints is full, retrying later is the right answer
+    @ExceptionHandler(RejectedExecutionException.class)
+    public final ResponseEntity<ExceptionResponse> handleRejectedExecutionExceptions(Exception ex, WebRequest request){
+        ExceptionResponse exceptionResponse = new ExceptionResponse(new Date(),"Server overloaded, try again later", request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(exceptionResponse);
+    }
+    //Accepted work that did not finish in time (a write-behind update not committed within its ack timeout)
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public final ResponseEntity<ExceptionResponse> handleServiceUnavailableExceptions(Exception ex, WebRequest request){
+        ExceptionResponse exceptionResponse = new ExceptionResponse(new Date(),ex.getMessage(), request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(exceptionResponse);
+    }
+    @ExceptionHandler(BadRequestException.class)
+    public final ResponseEntity<ExceptionResponse> handleBadRequestExceptions(Exception ex, WebRequest request){
+        ExceptionResponse exceptionResponse = new ExceptionResponse(new Date(),ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(exceptionResponse, HttpStatus.BAD_REQUEST);
+    }
 }
@@ -0,0 +1,276 @@
+package br.com.marcos.filters;
+
+import br.com.marcos.exceptions.ExceptionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control in front of PersonController. Each client gets a token bucket per endpoint, so a
+ * caller bursting GET /person runs out of its own tokens (429) without touching anyone else's budget.
+ * On top of that the filter sheds load (503) while too many requests are in flight or too many threads
+ * are already queued for a Hikari connection: answering those right away keeps the tail latency of
+ * the admitted requests bounded instead of letting every request wait out the pool timeout.
+ */
+@Component
+@Profile("!reactive")
+//Right after the observation filter, so rejected requests still show up in http.server.requests
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class PersonRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    @Value("${app.rate-limit.enabled:false}")
+    boolean enabled;
+
+    @Value("${app.rate-limit.requests-per-second:50}")
+    double requestsPerSecond;
+
+    @Value("${app.rate-limit.burst:100}")
+    int burst;
+
+    //Header carrying the client address behind a proxy (e.g. X-Forwarded-For), the remote address otherwise
+    @Value("${app.rate-limit.client-header:}")
+    String clientHeader;
+
+    //Regex of the proxy addresses allowed to set that header; empty trusts only the immediate peer
+    @Value("${app.rate-limit.trusted-proxies:}")
+    String trustedProxies;
+
+    @Value("${app.rate-limit.max-in-flight:500}")
+    int maxInFlight;
+
+    @Value("${app.rate-limit.max-pool-waiters:40}")
+    int maxPoolWaiters;
+
+    @Value("${app.rate-limit.shed-retry-after-seconds:1}")
+    long shedRetryAfterSeconds;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Autowired(required = false)
+    MeterRegistry registry;
+
+    @Autowired
+    ObjectProvider<DataSource> dataSource;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private Pattern trusted;
+    private Cache<String, Bucket> buckets;
+    private HikariPoolMXBean pool;
+    private long intervalNanos;
+    private long toleranceNanos;
+    private Counter rateLimited;
+    private Counter shedInFlight;
+    private Counter shedPool;
+
+    /**
+     * Token bucket kept as its theoretical arrival time (GCRA): one long per bucket, updated with a
+     * single CAS, so concurrent requests of the same client never take a lock.
+     */
+    static final class Bucket {
+        private final AtomicLong theoreticalArrival;
+
+        Bucket(long now) {
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        //0 when the request is admitted, otherwise the nanos until it would be
+        long tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+            while (true) {
+                long stored = theoreticalArrival.get();
+                long arrival = stored - now > 0 ? stored : now;
+                long wait = arrival - toleranceNanos - now;
+                if (wait > 0) return wait;
+                if (theoreticalArrival.compareAndSet(stored, arrival + intervalNanos)) return 0;
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        toleranceNanos = intervalNanos * Math.max(0, burst - 1);
+        trusted = trustedProxies == null || trustedProxies.isBlank() ? null : Pattern.compile(trustedProxies);
+        //An idle bucket is full again after the tolerance, so expiring it changes nothing for the client
+        buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos + intervalNanos).plusMinutes(1))
+                .maximumSize(100_000)
+                .build();
+        if (registry != null) {
+            rateLimited = rejected("rate");
+            shedInFlight = rejected("in_flight");
+            shedPool = rejected("pool");
+            Gauge.builder("person.ratelimit.in.flight", inFlight, AtomicInteger::get)
+                    .register(registry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !path(request).startsWith("/person");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        String key = client(request) + ' ' + request.getMethod() + ' ' + endpoint(request);
+        long wait = buckets.get(key, ignored -> new Bucket(now)).tryAcquire(now, intervalNanos, toleranceNanos);
+        if (wait > 0) {
+            increment(rateLimited);
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999));
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                    "Rate limit of " + requestsPerSecond + " requests per second exceeded for this endpoint");
+            return;
+        }
+
+        boolean leavesOnCompletion = false;
+        try {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                increment(shedInFlight);
+                reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, shedRetryAfterSeconds,
+                        "Server overloaded, more than " + maxInFlight + " requests in flight");
+                return;
+            }
+            HikariPoolMXBean connections = pool();
+            if (connections != null && connections.getThreadsAwaitingConnection() > maxPoolWaiters) {
+                increment(shedPool);
+                reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, shedRetryAfterSeconds,
+                        "Server overloaded, more than " + maxPoolWaiters + " requests waiting for a database connection");
+                return;
+            }
+            chain.doFilter(request, response);
+            //DeferredResult and streaming handlers are still running when the dispatch returns, they leave the
+            //count when the async request completes. Event streams are idle subscriptions and are not counted
+            if (request.isAsyncStarted() && !isEventStream(response)) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        inFlight.decrementAndGet();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+                leavesOnCompletion = true;
+            }
+        } finally {
+            if (!leavesOnCompletion) inFlight.decrementAndGet();
+        }
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    //Ids are folded into the path template, so /person/1 and /person/2 share one bucket
+    static String endpoint(HttpServletRequest request) {
+        return NUMERIC_SEGMENT.matcher(path(request)).replaceAll("/{id}");
+    }
+
+    //Only the hops our own proxies appended can be believed, anything left of them is whatever the client sent:
+    //the client is the right-most address that is not a trusted proxy
+    String client(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (clientHeader == null || clientHeader.isBlank() || (trusted != null && !trusted.matcher(remote).matches())) {
+            return remote;
+        }
+        String forwarded = request.getHeader(clientHeader);
+        if (forwarded == null || forwarded.isBlank()) {
+            return remote;
+        }
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) continue;
+            if (trusted == null || !trusted.matcher(hop).matches() || i == 0) return hop;
+        }
+        return remote;
+    }
+
+    private static boolean isEventStream(HttpServletResponse response) {
+        String contentType = response.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private HikariPoolMXBean pool() {
+        if (pool != null) return pool;
+        DataSource source = dataSource.getIfAvailable();
+        try {
+            if (source != null && source.isWrapperFor(HikariDataSource.class)) {
+                //Null until the pool has started
+                pool = source.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (SQLException e) {
+            return null;
+        }
+        return pool;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                        long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        mapper.writeValue(response.getOutputStream(),
+                new ExceptionResponse(new Date(), message, "uri=" + request.getRequestURI()));
+    }
+
+    private Counter rejected(String reason) {
+        return Counter.builder("person.ratelimit.rejected")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) counter.increment();
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.marcos.model;
+
+import java.io.Serializable;
+
+public class BatchItemResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, CONFLICT, FAILED }
+
+    //Position of the item in the request array, so callers can match results to input
+    private int index;
+    private Long id;
+    //Version after the write, the new ETag of the row; null when the item was not written
+    private Long version;
+    private Status status;
+    private String message;
+
+    public BatchItemResult(){}
+
+    public BatchItemResult(int index, Long id, Status status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public static BatchItemResult of(int index, Long id, Status status) {
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    public static BatchItemResult notFound(int index, Long id) {
+        return new BatchItemResult(index, id, Status.NOT_FOUND, "No records found for this id");
+    }
+
+    public static BatchItemResult failed(int index, Long id, String message) {
+        return new BatchItemResult(index, id, Status.FAILED, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
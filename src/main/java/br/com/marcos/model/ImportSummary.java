@@ -0,0 +1,77 @@
+package br.com.marcos.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+//Outcome of a streamed import: counters plus the first rejected rows, so the response stays small whatever the input size
+public class ImportSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_REJECTED = 100;
+
+    private long read;
+    private long created;
+    private long conflicts;
+    private long failed;
+    private List<BatchItemResult> rejected = new ArrayList<>();
+
+    public ImportSummary(){}
+
+    //Folds in the results of one chunk; their index is made absolute with the offset of the chunk in the stream
+    public void add(long offset, List<BatchItemResult> results) {
+        for (BatchItemResult result : results) {
+            read++;
+            if (result.getStatus() == BatchItemResult.Status.CREATED) {
+                created++;
+                continue;
+            }
+            if (result.getStatus() == BatchItemResult.Status.CONFLICT) conflicts++;
+            else failed++;
+            if (rejected.size() < MAX_REJECTED) {
+                rejected.add(new BatchItemResult((int) (offset + result.getIndex()), result.getId(),
+                        result.getStatus(), result.getMessage()));
+            }
+        }
+    }
+
+    public long getRead() {
+        return read;
+    }
+
+    public void setRead(long read) {
+        this.read = read;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(long conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchItemResult> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<BatchItemResult> rejected) {
+        this.rejected = rejected;
+    }
+}
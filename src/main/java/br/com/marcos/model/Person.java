@@ -1,17 +1,40 @@
 package br.com.marcos.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serializable;
 import java.util.Objects;
 
+//UPDATEs list only the changed columns; rows are kept in the person-entity second-level cache region
 @Entity
-@Table(name = "person")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Person.CACHE_REGION)
+//On a table that predates it, db/person-migrations.sql creates uk_person_email or stops the startup over duplicates
+@Table(name = "person",
+        uniqueConstraints = @UniqueConstraint(name = Person.EMAIL_CONSTRAINT, columnNames = "email"),
+        indexes = {
+                //Trailing id keeps search results in keyset order straight from the index
+                @Index(name = "idx_person_last_first_id", columnList = "last_name, first_name, id"),
+                //A first name without a last name cannot use the composite above, it leads with last_name
+                @Index(name = "idx_person_first_id", columnList = "first_name, id"),
+                @Index(name = "idx_person_gender_id", columnList = "gender, id")
+        })
 public class Person implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    public static final String EMAIL_CONSTRAINT = "uk_person_email";
+    //Hibernate second-level cache regions, sized in application.conf
+    public static final String CACHE_REGION = "person-entity";
+    public static final String QUERY_CACHE_REGION = "person-queries";
+
+    //Pooled sequence so Hibernate can assign ids without a round trip per row and batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @SequenceGenerator(name = "person_seq", sequenceName = "person_seq", allocationSize = 50)
     private Long id;
     @Column(name = "first_name", nullable = false, length = 80)
     private String firstName;
@@ -23,6 +46,9 @@ public class Person implements Serializable {
     private String gender;
     @Column
     private String email;
+    //Optimistic lock counter, also the strong ETag of the resource
+    @Version
+    private Long version;
 
     public Person(){}
 
@@ -41,6 +67,11 @@ public class Person implements Serializable {
         this.gender = gender;
         this.email = email;
     }
+    //Detached copy, version included
+    public Person(Person source) {
+        this(source.getId(), source.getFirstName(), source.getLastName(), source.getAddress(), source.getGender(), source.getEmail());
+        this.version = source.getVersion();
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -97,4 +128,12 @@ public class Person implements Serializable {
     public String getEmail() {return email;}
 
     public void setEmail(String email) {this.email = email;}
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,112 @@
+package br.com.marcos.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+//Transactional outbox row, written in the same transaction as the change to person
+@Entity
+@Table(name = "person_change",
+        uniqueConstraints = @UniqueConstraint(name = "uk_person_change_published_seq", columnNames = "published_seq"))
+public class PersonChange implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_change_seq")
+    @SequenceGenerator(name = "person_change_seq", sequenceName = "person_change_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "person_id", nullable = false)
+    private Long personId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 7)
+    private Type type;
+    @Column
+    private Long version;
+    //Person as JSON at the time of the change, null for deletes
+    @Column(columnDefinition = "text")
+    private String payload;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    //Gap-free position in the feed, assigned by the publisher in the order it drains the outbox
+    @Column(name = "published_seq")
+    private Long publishedSeq;
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    public PersonChange(){}
+
+    public PersonChange(Long personId, Type type, Long version, String payload) {
+        this.personId = personId;
+        this.type = type;
+        this.version = version;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getPublishedSeq() {
+        return publishedSeq;
+    }
+
+    public void setPublishedSeq(Long publishedSeq) {
+        this.publishedSeq = publishedSeq;
+    }
+
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(Instant publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+}
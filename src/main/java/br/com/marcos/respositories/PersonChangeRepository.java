@@ -0,0 +1,38 @@
+package br.com.marcos.respositories;
+
+import br.com.marcos.model.PersonChange;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface PersonChangeRepository extends JpaRepository<PersonChange, Long> {
+
+    //Oldest unpublished rows; SKIP LOCKED (lock timeout -2) keeps a second publisher from waiting on the first
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select c from PersonChange c where c.publishedSeq is null order by c.id")
+    List<PersonChange> findUnpublished(Pageable pageable);
+
+    @Query("select coalesce(max(c.publishedSeq), 0) from PersonChange c")
+    long findLastPublishedSeq();
+
+    @Query("select c from PersonChange c where c.publishedSeq > :after and c.publishedSeq <= :upTo order by c.publishedSeq")
+    List<PersonChange> findPublished(@Param("after") long after, @Param("upTo") long upTo, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PersonChange c where c.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") Instant before);
+}
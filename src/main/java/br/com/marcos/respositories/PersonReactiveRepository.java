@@ -0,0 +1,114 @@
+package br.com.marcos.respositories;
+
+import br.com.marcos.model.Person;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@Profile("reactive")
+public class PersonReactiveRepository {
+
+    private static final String COLUMNS = "id, first_name, last_name, address, gender, email, version";
+
+    @Autowired
+    DatabaseClient client;
+
+    public Mono<Person> findById(Long id) {
+        return client.sql("select " + COLUMNS + " from person where id = :id")
+                .bind("id", id)
+                .map(PersonReactiveRepository::toPerson)
+                .one();
+    }
+
+    public Mono<Person> findByEmail(String email) {
+        return client.sql("select " + COLUMNS + " from person where email = :email")
+                .bind("email", email)
+                .map(PersonReactiveRepository::toPerson)
+                .one();
+    }
+
+    //Keyset pagination, same contract as PersonRepository.findByIdGreaterThanOrderByIdAsc
+    public Flux<Person> findPage(long after, int limit) {
+        return client.sql("select " + COLUMNS + " from person where id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(PersonReactiveRepository::toPerson)
+                .all();
+    }
+
+    //Rows are pulled from the server as downstream demand arrives
+    public Flux<Person> streamAll() {
+        return client.sql("select " + COLUMNS + " from person order by id")
+                .map(PersonReactiveRepository::toPerson)
+                .all();
+    }
+
+    //nextval claims a whole pooled block of person_seq, so using its value can never collide with Hibernate's ids
+    public Mono<Person> insert(Person person) {
+        var spec = client.sql("insert into person (" + COLUMNS + ") "
+                + "values (nextval('person_seq'), :firstName, :lastName, :address, :gender, :email, 0) "
+                + "returning " + COLUMNS);
+        return bindFields(spec, person)
+                .map(PersonReactiveRepository::toPerson)
+                .one();
+    }
+
+    //Tells a missing row from a stale version once a conditional update matched nothing
+    public Mono<Long> findVersionById(Long id) {
+        return client.sql("select version from person where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    //Bumps the @Version column like Hibernate does; a stale version in the body matches no row
+    public Mono<Person> update(Person person) {
+        var spec = client.sql("update person set first_name = :firstName, last_name = :lastName, "
+                + "address = :address, gender = :gender, email = :email, version = version + 1 where id = :id "
+                + (person.getVersion() == null ? "" : "and version = :version ")
+                + "returning " + COLUMNS);
+        spec = bindFields(spec, person).bind("id", person.getId());
+        if (person.getVersion() != null) {
+            spec = spec.bind("version", person.getVersion());
+        }
+        return spec
+                .map(PersonReactiveRepository::toPerson)
+                .one();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return client.sql("delete from person where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindFields(DatabaseClient.GenericExecuteSpec spec, Person person) {
+        spec = bind(spec, "firstName", person.getFirstName());
+        spec = bind(spec, "lastName", person.getLastName());
+        spec = bind(spec, "address", person.getAddress());
+        spec = bind(spec, "gender", person.getGender());
+        return bind(spec, "email", person.getEmail());
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static Person toPerson(Readable row) {
+        Person person = new Person(
+                row.get("id", Long.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("address", String.class),
+                row.get("gender", String.class),
+                row.get("email", String.class));
+        person.setVersion(row.get("version", Long.class));
+        return person;
+    }
+}
@@ -1,23 +1,85 @@
 package br.com.marcos.respositories;
 
 import br.com.marcos.model.Person;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, PersonRepositoryCustom {
 
+    //Cached queries keep ids in person-queries and the rows in person-entity; any write to the person
+    //table makes Hibernate drop the cached results through the update timestamps region
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Person.QUERY_CACHE_REGION)
+    })
     Optional<Person> findByEmail(String email);
 
+    @Query("select p.email from Person p where p.email in :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+    @Query("select p.id from Person p where p.id in :ids")
+    List<Long> findIdsIn(@Param("ids") Collection<Long> ids);
+
+    //Answers conditional GETs from the primary key index without hydrating the entity
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Person.QUERY_CACHE_REGION)
+    })
+    @Query("select p.version from Person p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    //Single DELETE on the primary key, the entity is never loaded; returns the number of rows removed
+    @Modifying
+    @Transactional
+    @Query("delete from Person p where p.id = :id")
+    int deleteByIdReturningCount(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Person p where p.id = :id and p.version = :version")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    //Keyset pagination: the next page starts right after the last id already sent
+    Slice<Person> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    //Server-side cursor over the whole table, must be consumed inside a transaction and closed;
+    //it bypasses the second-level cache so a full scan does not evict the hot rows
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select p from Person p order by p.id")
+    Stream<Person> streamAllOrderById();
+
     //Define custom query using JPQL with index parameter
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Person.QUERY_CACHE_REGION)
+    })
     @Query("select p from Person p where p.firstName =?1 and p.lastName =?2")
     Person findByJPQL(String firstName, String lastName);
 
     //Define custom query using JPQL with named parameters
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Person.QUERY_CACHE_REGION)
+    })
     @Query("select p from Person p where p.firstName =:firstName and p.lastName =:lastName")
     Person findByJPQLNamedParameters(@Param("firstName") String firstName, @Param("lastName")String lastName);
 
@@ -28,4 +90,4 @@ public interface PersonRepository extends JpaRepository<Person, Long> {
     //Define custom query using Native SQL with named parameters
     @Query(value = "select * from person p where p.first_name =?firstName and p.last_name =?lastName", nativeQuery = true)
     Person findByNativeSQLWithNamedParameters(@Param("firstName") String firstName, @Param("lastName")String lastName);
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package br.com.marcos.respositories;
+
+import br.com.marcos.model.Person;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+//Column projections read as tuples: only the requested columns are selected and nothing enters the persistence context
+public interface PersonRepositoryCustom {
+
+    List<String> PROJECTABLE_FIELDS = List.of("id", "firstName", "lastName", "address", "gender", "email", "version");
+
+    Optional<Map<String, Object>> findFieldsById(Long id, Collection<String> fields);
+
+    List<Map<String, Object>> findFieldsAfter(long after, int limit, Collection<String> fields);
+
+    //Ordered by id and capped at limit, without the count query findAll(Specification, Pageable) would add
+    List<Person> search(Specification<Person> specification, int limit);
+}
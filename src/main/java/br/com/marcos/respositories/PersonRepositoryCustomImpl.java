@@ -0,0 +1,89 @@
+package br.com.marcos.respositories;
+
+import br.com.marcos.model.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Long id, Collection<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Person> root = query.from(Person.class);
+        query.multiselect(select(root, fields))
+                .where(cb.equal(root.get("id"), id));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .findFirst()
+                .map(tuple -> toMap(tuple, fields));
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfter(long after, int limit, Collection<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Person> root = query.from(Person.class);
+        query.multiselect(select(root, fields))
+                .where(cb.greaterThan(root.<Long>get("id"), after))
+                .orderBy(cb.asc(root.get("id")));
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(toMap(tuple, fields));
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Person> search(Specification<Person> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Person> query = cb.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static List<Selection<?>> select(Root<Person> root, Collection<String> fields) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        return selections;
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple, Collection<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, tuple.get(field));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.marcos.respositories;
+
+import br.com.marcos.model.Person;
+import org.springframework.data.jpa.domain.Specification;
+
+//Filters for GET /person/search, each one lines up with an index declared on Person or in db/person-indexes.sql
+public final class PersonSpecifications {
+
+    private PersonSpecifications() {}
+
+    public static Specification<Person> idGreaterThan(long after) {
+        return (root, query, cb) -> cb.greaterThan(root.<Long>get("id"), after);
+    }
+
+    public static Specification<Person> firstNameEquals(String firstName) {
+        return (root, query, cb) -> cb.equal(root.get("firstName"), firstName);
+    }
+
+    public static Specification<Person> lastNameEquals(String lastName) {
+        return (root, query, cb) -> cb.equal(root.get("lastName"), lastName);
+    }
+
+    public static Specification<Person> emailEquals(String email) {
+        return (root, query, cb) -> cb.equal(root.get("email"), email);
+    }
+
+    public static Specification<Person> genderEquals(String gender) {
+        return (root, query, cb) -> cb.equal(root.get("gender"), gender);
+    }
+
+    public static Specification<Person> addressStartsWith(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("address"), pattern, '\\');
+    }
+}
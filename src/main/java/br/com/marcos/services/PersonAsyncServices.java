@@ -0,0 +1,82 @@
+package br.com.marcos.services;
+
+import br.com.marcos.model.Person;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs PersonServices calls on a DB executor with one thread per pooled connection, so the servlet
+ * thread goes back to Tomcat while JDBC waits. More threads could only queue inside Hikari, fewer
+ * would leave connections idle. A full queue rejects right away (503) instead of growing a backlog
+ * past any useful timeout. Everything goes through the PersonServices proxy, so caching,
+ * single-flight, metrics and transactions behave as on the synchronous endpoints.
+ */
+@Service
+@Profile("!reactive")
+public class PersonAsyncServices {
+
+    @Value("${app.async.db-threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    int dbThreads;
+
+    @Value("${app.async.queue-capacity:1000}")
+    int queueCapacity;
+
+    @Autowired
+    PersonServices services;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private ExecutorService dbExecutor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(dbThreads, dbThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> Thread.ofPlatform().name("person-db-" + count.incrementAndGet()).daemon().unstarted(runnable),
+                new ThreadPoolExecutor.AbortPolicy());
+        dbExecutor = ExecutorServiceMetrics.monitor(registry, executor, "person.db");
+    }
+
+    @PreDestroy
+    void stop() {
+        dbExecutor.shutdown();
+    }
+
+    public CompletableFuture<Person> findById(Long id) {
+        return submit(() -> services.findById(id));
+    }
+
+    public CompletableFuture<Slice<Person>> findPage(Long after, int limit) {
+        return submit(() -> services.findPage(after, limit));
+    }
+
+    public CompletableFuture<Person> create(Person person) {
+        return submit(() -> services.create(person));
+    }
+
+    //A rejected task fails the future like any other error, so the caller has a single path for both
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, dbExecutor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
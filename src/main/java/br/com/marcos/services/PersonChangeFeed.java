@@ -0,0 +1,266 @@
+package br.com.marcos.services;
+
+import br.com.marcos.exceptions.BadRequestException;
+import br.com.marcos.model.Person;
+import br.com.marcos.model.PersonChange;
+import br.com.marcos.respositories.PersonChangeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Change feed of person mutations. PersonServices records each change into the person_change outbox
+ * inside its own transaction; a single publisher thread drains the outbox in batches, numbers the
+ * rows with a gap-free published_seq and pushes them to the SSE subscribers. A subscriber that falls
+ * behind, or connects with an old since, is caught up from the table, so since/Last-Event-ID resume
+ * without losing events for as long as the rows are retained.
+ */
+@Component
+@Profile("!reactive")
+public class PersonChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonChangeFeed.class);
+
+    //Off unless asked for: when on, every write also inserts an outbox row and the publisher polls the table
+    @Value("${app.changes.enabled:false}")
+    boolean enabled;
+
+    @Value("${app.changes.batch-size:500}")
+    int batchSize;
+
+    @Value("${app.changes.poll-interval-ms:100}")
+    long pollIntervalMs;
+
+    @Value("${app.changes.retention-hours:168}")
+    long retentionHours;
+
+    @Value("${app.changes.emitter-timeout-ms:1800000}")
+    long emitterTimeoutMs;
+
+    @Autowired
+    PersonChangeRepository repository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService delivery = Executors.newVirtualThreadPerTaskExecutor();
+    private ScheduledExecutorService scheduler;
+    private volatile long lastPublishedSeq;
+    private Counter published;
+
+    interface Sink {
+        void send(PersonChange change) throws IOException;
+    }
+
+    final class Subscriber {
+        private final Sink sink;
+        private final Runnable close;
+        //Not synchronized: delivery runs on virtual threads and blocks on SSE writes and queries, and a
+        //monitor held across those would pin the carrier thread
+        private final ReentrantLock lock = new ReentrantLock();
+        private long lastSent;
+
+        Subscriber(Sink sink, Runnable close, long since) {
+            this.sink = sink;
+            this.close = close;
+            this.lastSent = since;
+        }
+
+        //Fills any gap from the table before sending, so out of order or missed batches never drop an event
+        void deliver(List<PersonChange> changes) {
+            lock.lock();
+            try {
+                for (PersonChange change : changes) {
+                    if (change.getPublishedSeq() <= lastSent) continue;
+                    if (change.getPublishedSeq() > lastSent + 1) catchUp(change.getPublishedSeq() - 1);
+                    send(change);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Change feed subscriber dropped: {}", e.getMessage());
+                subscribers.remove(this);
+                close.run();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void catchUp(long upTo) throws IOException {
+            lock.lock();
+            try {
+                while (lastSent < upTo) {
+                    List<PersonChange> page = repository.findPublished(lastSent, upTo, PageRequest.ofSize(batchSize));
+                    if (page.isEmpty()) {
+                        //Pruned by retention, resume from what is still there
+                        lastSent = upTo;
+                        return;
+                    }
+                    for (PersonChange change : page) {
+                        send(change);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void send(PersonChange change) throws IOException {
+            sink.send(change);
+            lastSent = change.getPublishedSeq();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        published = Counter.builder("person.changes.published")
+                .register(registry);
+        Gauge.builder("person.changes.subscribers", subscribers, List::size)
+                .register(registry);
+        if (!enabled) return;
+
+        lastPublishedSeq = repository.findLastPublishedSeq();
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                runnable -> Thread.ofPlatform().name("person-change-publisher").daemon().unstarted(runnable));
+        scheduler.scheduleWithFixedDelay(this::publishQuietly, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::pruneQuietly, 1, 60, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        delivery.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.close.run());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //Must run inside the transaction of the change itself, that is what makes the outbox reliable
+    public void recordSaved(PersonChange.Type type, Person person) {
+        if (!enabled) return;
+        try {
+            repository.save(new PersonChange(person.getId(), type, person.getVersion(), mapper.writeValueAsString(person)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void recordDeleted(Long id) {
+        if (!enabled) return;
+        repository.save(new PersonChange(id, PersonChange.Type.DELETED, null, null));
+    }
+
+    public SseEmitter subscribe(long since) {
+        if (!enabled) {
+            throw new BadRequestException("The change feed is disabled (app.changes.enabled)");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = subscribe(since, change -> emitter.send(SseEmitter.event()
+                .id(String.valueOf(change.getPublishedSeq()))
+                .name(change.getType().name())
+                .data(toJson(change), MediaType.APPLICATION_JSON)), emitter::complete);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    Subscriber subscribe(long since, Sink sink, Runnable close) {
+        Subscriber subscriber = new Subscriber(sink, close, since);
+        subscribers.add(subscriber);
+        //Replays history up to the current position; live batches published meanwhile wait on the subscriber lock
+        long upTo = lastPublishedSeq;
+        delivery.execute(() -> {
+            try {
+                subscriber.catchUp(upTo);
+            } catch (IOException | RuntimeException e) {
+                subscribers.remove(subscriber);
+                subscriber.close.run();
+            }
+        });
+        return subscriber;
+    }
+
+    //Drains the outbox until a batch comes back short, then fans the published rows out
+    public void publish() {
+        while (true) {
+            List<PersonChange> batch = transactionTemplate.execute(status -> {
+                List<PersonChange> changes = repository.findUnpublished(PageRequest.ofSize(batchSize));
+                if (changes.isEmpty()) return changes;
+                long seq = repository.findLastPublishedSeq();
+                Instant now = Instant.now();
+                for (PersonChange change : changes) {
+                    change.setPublishedSeq(++seq);
+                    change.setPublishedAt(now);
+                }
+                return changes;
+            });
+            if (batch == null || batch.isEmpty()) return;
+
+            lastPublishedSeq = batch.get(batch.size() - 1).getPublishedSeq();
+            published.increment(batch.size());
+            for (Subscriber subscriber : subscribers) {
+                delivery.execute(() -> subscriber.deliver(batch));
+            }
+            if (batch.size() < batchSize) return;
+        }
+    }
+
+    static String toJson(PersonChange change) {
+        return "{\"seq\":" + change.getPublishedSeq()
+                + ",\"type\":\"" + change.getType() + "\""
+                + ",\"personId\":" + change.getPersonId()
+                + ",\"version\":" + change.getVersion()
+                + ",\"person\":" + change.getPayload() + "}";
+    }
+
+    private void publishQuietly() {
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            logger.warn("Change feed publish failed", e);
+        }
+    }
+
+    private void pruneQuietly() {
+        try {
+            int removed = repository.deletePublishedBefore(Instant.now().minus(Duration.ofHours(retentionHours)));
+            logger.debug("operation=pruneChanges removed={}", removed);
+        } catch (RuntimeException e) {
+            logger.warn("Change feed prune failed", e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package br.com.marcos.services;
+
+import br.com.marcos.model.Person;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * UTF-8 JSON of each person as the controller would serialize it, keyed by id and tagged with the
+ * version it was rendered from. PersonServices invalidates an id after every commit, leaving a
+ * tombstone with the committed version, so a reader that loaded the row before the commit and
+ * caches it afterwards cannot bring the old JSON back. Page rendering also checks the version, so a
+ * fragment is never reused for a row that changed.
+ */
+@Component
+public class PersonJsonCache {
+
+    //bytes is null for a tombstone: nothing to serve, only renders of at least this version may be cached
+    public record Entry(Long version, byte[] bytes) {}
+
+    @Value("${app.json-cache.enabled:true}")
+    boolean enabled;
+
+    @Value("${app.json-cache.max-bytes:67108864}")
+    long maxBytes;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Autowired(required = false)
+    MeterRegistry registry;
+
+    private Cache<Long, Entry> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, Entry entry) -> (entry.bytes() == null ? 0 : entry.bytes().length) + 64)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats()
+                .build();
+        if (registry != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "person.json");
+        }
+    }
+
+    //Bytes last rendered for this id, null when they have to be rendered again
+    public Entry get(Long id) {
+        Entry entry = enabled && id != null ? cache.getIfPresent(id) : null;
+        return entry != null && entry.bytes() != null ? entry : null;
+    }
+
+    //Bytes for this exact state of the person, rendered and cached only when the cached ones are for another version
+    public Entry get(Person person) {
+        Entry cached = get(person.getId());
+        if (cached != null && person.getVersion() != null && person.getVersion().equals(cached.version())) {
+            return cached;
+        }
+        Entry entry = new Entry(person.getVersion(), serialize(person));
+        if (enabled && person.getId() != null && person.getVersion() != null) {
+            //A reader that loaded an older row must not overwrite what a newer reader cached, nor a newer tombstone
+            cache.asMap().merge(person.getId(), entry,
+                    (old, fresh) -> old.version() > fresh.version() ? old : fresh);
+        }
+        return entry;
+    }
+
+    //JSON array built from the per-person fragments, no object graph is serialized for cached rows
+    public byte[] array(List<Person> people) {
+        byte[][] fragments = new byte[people.size()][];
+        int length = 2 + Math.max(0, people.size() - 1);
+        for (int i = 0; i < fragments.length; i++) {
+            fragments[i] = get(people.get(i)).bytes();
+            length += fragments[i].length;
+        }
+        byte[] json = new byte[length];
+        int position = 0;
+        json[position++] = '[';
+        for (int i = 0; i < fragments.length; i++) {
+            if (i > 0) json[position++] = ',';
+            System.arraycopy(fragments[i], 0, json, position, fragments[i].length);
+            position += fragments[i].length;
+        }
+        json[position] = ']';
+        return json;
+    }
+
+    //The row is gone, or its committed version is unknown: nothing is cached for it until the entry expires
+    public void invalidate(Long id) {
+        invalidate(id, null);
+    }
+
+    //Drops the bytes of an id whose row was committed at this version; renders of older versions are refused from now on
+    public void invalidate(Long id, Long committedVersion) {
+        if (id == null) return;
+        Entry tombstone = new Entry(committedVersion == null ? Long.MAX_VALUE : committedVersion, null);
+        cache.asMap().merge(id, tombstone,
+                (old, fresh) -> old.version() > fresh.version()
+                        || (old.bytes() != null && old.version().equals(fresh.version())) ? old : fresh);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private byte[] serialize(Person person) {
+        try {
+            return mapper.writeValueAsBytes(Objects.requireNonNull(person));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
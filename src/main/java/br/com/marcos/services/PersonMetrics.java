@@ -0,0 +1,25 @@
+package br.com.marcos.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PersonMetrics {
+
+    public static final String SERVICE_TIMER = "person.service";
+    public static final String ROWS_SUMMARY = "person.service.rows";
+
+    @Autowired
+    MeterRegistry registry;
+
+    public void rowsReturned(String operation, long rows) {
+        DistributionSummary.builder(ROWS_SUMMARY)
+                .description("Rows returned by PersonServices read operations")
+                .baseUnit("rows")
+                .tag("operation", operation)
+                .register(registry)
+                .record(rows);
+    }
+}
@@ -0,0 +1,138 @@
+package br.com.marcos.services;
+
+import br.com.marcos.exceptions.PreconditionFailedException;
+import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.Person;
+import br.com.marcos.respositories.PersonReactiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+@Profile("reactive")
+public class PersonReactiveServices {
+    private static final Logger logger = LoggerFactory.getLogger(PersonReactiveServices.class);
+
+    @Autowired
+    PersonReactiveRepository repository;
+
+    //Clamps the limit and reads one row past it, the page is cut here so hasNext holds at MAX_PAGE_SIZE too
+    public Mono<Slice<Person>> findPage(Long after, int limit){
+        logger.debug("operation=findPage after={} limit={}", after, limit);
+
+        int size = Math.max(1, Math.min(limit, PersonServices.MAX_PAGE_SIZE));
+        return repository.findPage(after == null ? 0L : after, size + 1)
+                .collectList()
+                .map(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    List<Person> content = hasNext ? rows.subList(0, size) : rows;
+                    return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+                });
+    }
+    public Flux<Person> streamAll(){
+        logger.debug("operation=streamAll");
+
+        return repository.streamAll();
+    }
+    public Mono<Person> findById(Long id){
+        logger.debug("operation=findById id={}", id);
+
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("No records found for this id")));
+    }
+    public Mono<Person> findByEmail(String email){
+        logger.debug("operation=findByEmail");
+
+        return repository.findByEmail(email)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("No records found for this e-Mail")));
+    }
+    public Mono<Person> create(Person person) {
+        logger.debug("operation=create");
+
+        return repository.insert(person)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new ResourceNotFoundException("Person already exist with given e-Mail: " + person.getEmail()));
+    }
+    public Mono<Person> update(Person person) {
+        logger.debug("operation=update id={}", person.getId());
+
+        return repository.update(person)
+                .switchIfEmpty(Mono.defer(() -> missingOrStale(person.getId(), person.getVersion())));
+    }
+    public Mono<Void> delete(Long id) {
+        logger.debug("operation=delete id={}", id);
+
+        return repository.deleteById(id)
+                .flatMap(rows -> rows == 0
+                        ? Mono.<Void>error(new ResourceNotFoundException("No records found for this id"))
+                        : Mono.<Void>empty());
+    }
+    public Flux<BatchItemResult> createAll(List<Person> people) {
+        logger.debug("operation=createAll size={}", people.size());
+
+        return Flux.fromIterable(people)
+                .index()
+                .concatMap(item -> {
+                    int index = item.getT1().intValue();
+                    return create(item.getT2())
+                            .map(saved -> BatchItemResult.of(index, saved.getId(), BatchItemResult.Status.CREATED))
+                            .onErrorResume(ResourceNotFoundException.class, e -> Mono.just(
+                                    new BatchItemResult(index, null, BatchItemResult.Status.CONFLICT, e.getMessage())))
+                            .onErrorResume(e -> Mono.just(BatchItemResult.failed(index, null, e.getMessage())));
+                });
+    }
+    public Flux<BatchItemResult> updateAll(List<Person> people) {
+        logger.debug("operation=updateAll size={}", people.size());
+
+        return Flux.fromIterable(people)
+                .index()
+                .concatMap(item -> {
+                    int index = item.getT1().intValue();
+                    Long id = item.getT2().getId();
+                    return repository.update(item.getT2())
+                            .switchIfEmpty(Mono.defer(() -> missingOrStale(id, item.getT2().getVersion())))
+                            .map(saved -> BatchItemResult.of(index, id, BatchItemResult.Status.UPDATED))
+                            .onErrorResume(ResourceNotFoundException.class, e -> Mono.just(BatchItemResult.notFound(index, id)))
+                            .onErrorResume(PreconditionFailedException.class, e -> Mono.just(
+                                    new BatchItemResult(index, id, BatchItemResult.Status.CONFLICT, e.getMessage())))
+                            .onErrorResume(e -> Mono.just(BatchItemResult.failed(index, id, e.getMessage())));
+                });
+    }
+    public Flux<BatchItemResult> deleteAll(List<Long> ids) {
+        logger.debug("operation=deleteAll size={}", ids.size());
+
+        return Flux.fromIterable(ids)
+                .index()
+                .concatMap(item -> {
+                    int index = item.getT1().intValue();
+                    Long id = item.getT2();
+                    return repository.deleteById(id)
+                            .map(rows -> rows == 0
+                                    ? BatchItemResult.notFound(index, id)
+                                    : BatchItemResult.of(index, id, BatchItemResult.Status.DELETED))
+                            .onErrorResume(e -> Mono.just(BatchItemResult.failed(index, id, e.getMessage())));
+                });
+    }
+    //An update that matched no row: 404 when the id is gone, 412 when only the version was stale, like the
+    //servlet stack; only this failure path pays the second query
+    private Mono<Person> missingOrStale(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new ResourceNotFoundException("No records found for this id"));
+        }
+        return repository.findVersionById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("No records found for this id")))
+                .flatMap(current -> Mono.<Person>error(
+                        new PreconditionFailedException("Version " + expectedVersion + " is stale, current is " + current)));
+    }
+}
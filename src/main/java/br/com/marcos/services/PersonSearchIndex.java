@@ -0,0 +1,295 @@
+package br.com.marcos.services;
+
+import br.com.marcos.model.Person;
+import br.com.marcos.util.LongIntHashMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over first name, last name and address, used for typo tolerant search.
+ * Each document gets a slot; a posting list per trigram holds the slots containing it. Updates
+ * tombstone the old slot and append a new one, and the whole index is compacted once half of the
+ * slots are dead. Slots are only ever appended and compaction keeps their order, so every posting
+ * list stays sorted, which lets a search intersect lists instead of visiting every slot.
+ */
+@Component
+public class PersonSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    //Fraction of the query trigrams a document must contain to be returned
+    private static final double MIN_COVERAGE = 0.5;
+    private static final int[] EMPTY_LIST = {0};
+
+    @Value("${app.search.index.enabled:true}")
+    boolean enabled;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    //trigram -> position in lists, each list is [size, slot, slot, ...] and grows without a wrapper object
+    private final LongIntHashMap postings = new LongIntHashMap(1 << 14);
+    private int[][] lists = new int[1 << 14][];
+    private int listCount;
+    private final LongIntHashMap slotById = new LongIntHashMap(1024);
+    private final BitSet deleted = new BitSet();
+    private long[] ids = new long[1024];
+    private int[] trigramCounts = new int[1024];
+    private int slots;
+    //Ids written through the services while the initial load runs; the loaded copy of those is stale
+    private LongIntHashMap touchedWhileLoading = new LongIntHashMap();
+    private volatile boolean ready;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("person.search.index.documents", this, PersonSearchIndex::size)
+                .register(registry);
+        Gauge.builder("person.search.index.bytes", this, PersonSearchIndex::estimatedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("person.search.index.bytes.per.document", this,
+                        index -> index.size() == 0 ? 0 : (double) index.estimatedBytes() / index.size())
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //Searches only see the whole table once the initial load is done, before that they would miss people
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    //Initial load from the database, skips people the services changed in the meantime
+    public void load(Person person) {
+        if (!enabled || person.getId() == null) return;
+        long[] grams = trigrams(person.getFirstName(), person.getLastName(), person.getAddress());
+
+        lock.writeLock().lock();
+        try {
+            if (touchedWhileLoading != null && touchedWhileLoading.containsKey(person.getId())) return;
+            write(person.getId(), grams);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markLoaded() {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            touchedWhileLoading = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Person person) {
+        if (!enabled || person.getId() == null) return;
+        long[] grams = trigrams(person.getFirstName(), person.getLastName(), person.getAddress());
+
+        lock.writeLock().lock();
+        try {
+            if (touchedWhileLoading != null) touchedWhileLoading.put(person.getId(), 1);
+            write(person.getId(), grams);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (!enabled || id == null) return;
+        lock.writeLock().lock();
+        try {
+            if (touchedWhileLoading != null) touchedWhileLoading.put(id, 1);
+            int slot = slotById.remove(id, -1);
+            if (slot >= 0) {
+                deleted.set(slot);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Ids ranked by how much of the query they contain, then by trigram similarity (shorter, closer texts first).
+    //A person with minHits of the n query trigrams is in at least one of the n - minHits + 1 rarest lists,
+    //so only those are read for candidates; each candidate is then counted against every list by binary search
+    public List<Long> search(String query, int limit) {
+        long[] grams = trigrams(query);
+        if (grams.length == 0) return List.of();
+        int minHits = (int) Math.ceil(grams.length * MIN_COVERAGE);
+
+        lock.readLock().lock();
+        try {
+            int[][] matching = new int[grams.length][];
+            for (int i = 0; i < grams.length; i++) {
+                int position = postings.get(grams[i], -1);
+                matching[i] = position < 0 ? EMPTY_LIST : lists[position];
+            }
+            Arrays.sort(matching, Comparator.comparingInt((int[] list) -> list[0]));
+
+            int probed = grams.length - minHits + 1;
+            int total = 0;
+            for (int i = 0; i < probed; i++) {
+                total += matching[i][0];
+            }
+            int[] candidates = new int[total];
+            int count = 0;
+            for (int i = 0; i < probed; i++) {
+                System.arraycopy(matching[i], 1, candidates, count, matching[i][0]);
+                count += matching[i][0];
+            }
+            Arrays.sort(candidates);
+
+            PriorityQueue<double[]> top = new PriorityQueue<>(limit + 1, (a, b) -> Double.compare(a[0], b[0]));
+            for (int c = 0; c < count; c++) {
+                int slot = candidates[c];
+                if ((c > 0 && slot == candidates[c - 1]) || deleted.get(slot)) continue;
+                int common = 0;
+                for (int[] list : matching) {
+                    if (list[0] > 0 && Arrays.binarySearch(list, 1, list[0] + 1, slot) >= 0) common++;
+                }
+                if (common < minHits) continue;
+                double coverage = (double) common / grams.length;
+                double similarity = (double) common / (grams.length + trigramCounts[slot] - common);
+                top.add(new double[]{coverage + similarity / 2, slot});
+                if (top.size() > limit) top.poll();
+            }
+
+            Long[] ranked = new Long[top.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = ids[(int) top.poll()[1]];
+            }
+            return Arrays.asList(ranked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(long id, long[] grams) {
+        int old = slotById.remove(id, -1);
+        if (old >= 0) deleted.set(old);
+
+        int slot = slots++;
+        if (slot == ids.length) {
+            ids = Arrays.copyOf(ids, slot * 2);
+            trigramCounts = Arrays.copyOf(trigramCounts, slot * 2);
+        }
+        ids[slot] = id;
+        trigramCounts[slot] = grams.length;
+        for (long gram : grams) {
+            int position = postings.get(gram, -1);
+            if (position < 0) {
+                if (listCount == lists.length) lists = Arrays.copyOf(lists, listCount * 2);
+                position = listCount++;
+                lists[position] = new int[4];
+                postings.put(gram, position);
+            } else if (lists[position][0] + 1 == lists[position].length) {
+                lists[position] = Arrays.copyOf(lists[position], lists[position].length * 2);
+            }
+            int[] list = lists[position];
+            list[++list[0]] = slot;
+        }
+        slotById.put(id, slot);
+        compactIfNeeded();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Rough retained size: slot arrays, both primitive maps and the posting lists themselves
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 16L + 8L * ids.length + 16L + 4L * trigramCounts.length + deleted.size() / 8;
+            bytes += postings.estimatedBytes() + slotById.estimatedBytes() + 16L + 4L * lists.length;
+            for (int i = 0; i < listCount; i++) {
+                bytes += 16 + 4L * lists[i].length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        int dead = slots - slotById.size();
+        if (slots < 1024 || dead * 2 < slots) return;
+
+        int[] remap = new int[slots];
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            remap[slot] = deleted.get(slot) ? -1 : live++;
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            if (remap[slot] >= 0) {
+                ids[remap[slot]] = ids[slot];
+                trigramCounts[remap[slot]] = trigramCounts[slot];
+            }
+        }
+        //Emptied lists keep their position, the trigram is likely to come back
+        for (int position = 0; position < listCount; position++) {
+            int[] list = lists[position];
+            int size = 0;
+            for (int i = 1; i <= list[0]; i++) {
+                int slot = remap[list[i]];
+                if (slot >= 0) list[++size] = slot;
+            }
+            list[0] = size;
+        }
+        slotById.replaceValues(slot -> remap[slot]);
+        deleted.clear();
+        slots = live;
+    }
+
+    static long[] trigrams(String... texts) {
+        long[] grams = new long[32];
+        int count = 0;
+        for (String text : texts) {
+            if (text == null) continue;
+            String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            for (String word : SEPARATORS.split(normalized)) {
+                if (word.isEmpty()) continue;
+                //Padded like pg_trgm so word starts weigh more than their middle
+                String padded = "  " + word + " ";
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    if (count == grams.length) grams = Arrays.copyOf(grams, count * 2);
+                    grams[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+                }
+            }
+        }
+        long[] sorted = Arrays.copyOf(grams, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[distinct++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+}
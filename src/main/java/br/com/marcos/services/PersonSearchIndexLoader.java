@@ -0,0 +1,41 @@
+package br.com.marcos.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+//Fills PersonSearchIndex and PersonSnapshot from the database in one pass once the application is up;
+//PersonServices keeps them current afterwards
+@Component
+@Profile("!reactive")
+public class PersonSearchIndexLoader {
+    private static final Logger logger = LoggerFactory.getLogger(PersonSearchIndexLoader.class);
+
+    @Autowired
+    PersonServices services;
+
+    @Autowired
+    PersonSearchIndex index;
+
+    @Autowired
+    PersonSnapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!index.isEnabled() && !snapshot.isEnabled()) return;
+
+        long start = System.nanoTime();
+        long count = services.streamAll(person -> {
+            index.load(person);
+            snapshot.load(person);
+        });
+        index.markLoaded();
+        snapshot.markLoaded();
+        logger.info("In-memory read models built: people={} indexBytes={} snapshotOffHeapBytes={} elapsedMs={}",
+                count, index.estimatedBytes(), snapshot.offHeapBytes(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
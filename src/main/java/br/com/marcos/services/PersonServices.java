@@ -1,67 +1,698 @@
 package br.com.marcos.services;
 
+import br.com.marcos.config.CacheConfig;
+import br.com.marcos.exceptions.BadRequestException;
+import br.com.marcos.exceptions.PreconditionFailedException;
 import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.exceptions.ServiceUnavailableException;
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.ImportSummary;
 import br.com.marcos.model.Person;
+import br.com.marcos.model.PersonChange;
 import br.com.marcos.respositories.PersonRepository;
+import br.com.marcos.respositories.PersonRepositoryCustom;
+import br.com.marcos.respositories.PersonSpecifications;
+import br.com.marcos.util.LongIntHashMap;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.logging.Logger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
 public class PersonServices {
-    private Logger logger = Logger.getLogger(PersonServices.class.getName());
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_WRITE_ATTEMPTS = 3;
+    //Rows written per transaction by the batch operations, a multiple of hibernate.jdbc.batch_size
+    public static final int BATCH_CHUNK_SIZE = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonServices.class);
 
     @Autowired
     PersonRepository repository;
 
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    PersonMetrics metrics;
+
+    @Autowired
+    PersonSearchIndex searchIndex;
+
+    @Autowired
+    PersonSnapshot snapshot;
+
+    @Autowired
+    PersonJsonCache jsonCache;
+
+    @Autowired
+    PersonWriteBehindBuffer writeBehind;
+
+    @Autowired
+    PersonChangeFeed changeFeed;
+
+    @Autowired
+    PersonSingleFlight singleFlight;
+
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "findAll"}, histogram = true)
     public List<Person> findAll(){
-        logger.info("Finding all people!");
+        logger.debug("operation=findAll");
+
+        List<Person> people = snapshot.isReady() ? snapshot.findAll()
+                : singleFlight.execute("findAll", List.of(), repository::findAll,
+                        shared -> shared.stream().map(Person::new).toList());
+        metrics.rowsReturned("findAll", people.size());
+        return people;
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "findPage"}, histogram = true)
+    public Slice<Person> findPage(Long after, int limit){
+        logger.debug("operation=findPage after={} limit={}", after, limit);
+
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = after == null ? 0L : after;
+
+        Slice<Person> page;
+        if (snapshot.isReady()) {
+            //One extra row tells whether there is a next page
+            List<Person> rows = snapshot.findPage(cursor, size + 1);
+            boolean hasNext = rows.size() > size;
+            page = new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.ofSize(size), hasNext);
+        } else {
+            page = singleFlight.execute("findPage", List.of(cursor, size),
+                    () -> repository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.ofSize(size)),
+                    shared -> new SliceImpl<>(shared.getContent().stream().map(Person::new).toList(),
+                            shared.getPageable(), shared.hasNext()));
+        }
+        metrics.rowsReturned("findPage", page.getNumberOfElements());
+        return page;
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "fuzzySearch"}, histogram = true)
+    public List<Person> fuzzySearch(String query, int limit){
+        logger.debug("operation=fuzzySearch limit={}", limit);
 
-        return repository.findAll();
+        if (!searchIndex.isEnabled()) {
+            throw new BadRequestException("Full-text search is disabled (app.search.index.enabled)");
+        }
+        //Until the startup load is done the index misses people, a 503 with Retry-After beats partial results
+        if (!searchIndex.isReady()) {
+            throw new ServiceUnavailableException("Full-text search index is still loading");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Long> ranked = searchIndex.search(query, size);
+        LongIntHashMap rankById = new LongIntHashMap(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            rankById.put(ranked.get(i), i);
+        }
+        //Rows come back in primary key order, put them back in rank order
+        Person[] byRank = new Person[ranked.size()];
+        for (Person person : repository.findAllById(ranked)) {
+            int rank = rankById.get(person.getId(), -1);
+            if (rank >= 0) byRank[rank] = person;
+        }
+        List<Person> results = Arrays.stream(byRank)
+                .filter(Objects::nonNull)
+                .toList();
+        metrics.rowsReturned("fuzzySearch", results.size());
+        return results;
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "search"}, histogram = true)
+    public Slice<Person> search(String firstName, String lastName, String email, String gender,
+                                String addressPrefix, Long after, int limit){
+        logger.debug("operation=search firstName={} lastName={} gender={} addressPrefix={} after={} limit={}",
+                firstName, lastName, gender, addressPrefix, after, limit);
+
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Specification<Person> specification = PersonSpecifications.idGreaterThan(after == null ? 0L : after);
+        if (hasText(firstName)) specification = specification.and(PersonSpecifications.firstNameEquals(firstName));
+        if (hasText(lastName)) specification = specification.and(PersonSpecifications.lastNameEquals(lastName));
+        if (hasText(email)) specification = specification.and(PersonSpecifications.emailEquals(email));
+        if (hasText(gender)) specification = specification.and(PersonSpecifications.genderEquals(gender));
+        if (hasText(addressPrefix)) specification = specification.and(PersonSpecifications.addressStartsWith(addressPrefix));
+
+        List<Person> rows = repository.search(specification, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Person> content = hasNext ? rows.subList(0, size) : rows;
+        metrics.rowsReturned("search", content.size());
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "findFieldsPage"}, histogram = true)
+    public Slice<Map<String, Object>> findFieldsPage(Long after, int limit, String fields){
+        logger.debug("operation=findFieldsPage after={} limit={} fields={}", after, limit, fields);
+
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = after == null ? 0L : after;
+
+        //One extra row tells whether there is a next page
+        List<Map<String, Object>> rows = repository.findFieldsAfter(cursor, size + 1, parseFields(fields));
+        boolean hasNext = rows.size() > size;
+        List<Map<String, Object>> content = hasNext ? rows.subList(0, size) : rows;
+        metrics.rowsReturned("findFieldsPage", content.size());
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "findFieldsById"}, histogram = true)
+    public Map<String, Object> findFieldsById(Long id, String fields){
+        logger.debug("operation=findFieldsById id={} fields={}", id, fields);
+
+        return repository.findFieldsById(id, parseFields(fields)).orElseThrow(
+                () ->  new ResourceNotFoundException("No records found for this id"));
     }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "streamAll"}, histogram = true)
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<Person> consumer){
+        logger.debug("operation=streamAll");
+
+        long count = 0;
+        try (Stream<Person> people = repository.streamAllOrderById()) {
+            for (var iterator = people.iterator(); iterator.hasNext(); count++) {
+                Person person = iterator.next();
+                consumer.accept(person);
+                //Keep the persistence context empty so memory stays flat whatever the table size
+                entityManager.detach(person);
+            }
+        }
+        metrics.rowsReturned("streamAll", count);
+        return count;
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "findById"}, histogram = true)
+    @Cacheable(cacheNames = CacheConfig.PERSON_CACHE, key = "#id")
     public Person findById(Long id){
-        logger.info("Finding one person!");
+        logger.debug("operation=findById id={}", id);
 
-        return repository.findById(id).orElseThrow(
+        Optional<Person> person = snapshot.isReady() ? snapshot.findById(id)
+                : singleFlight.execute("findById", id, () -> repository.findById(id),
+                        shared -> shared.map(Person::new));
+        return person.orElseThrow(
                 () ->  new ResourceNotFoundException("No records found for this id"));
     }
 
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "findByEmail"}, histogram = true)
+    public Person findByEmail(String email){
+        logger.debug("operation=findByEmail");
+
+        return repository.findByEmail(email).orElseThrow(
+                () ->  new ResourceNotFoundException("No records found for this e-Mail"));
+    }
+
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "create"}, histogram = true)
+    @CachePut(cacheNames = CacheConfig.PERSON_CACHE, key = "#result.id")
+    @Transactional
     public Person create(Person person) {
 
-        logger.info("Creating one person!");
+        logger.debug("operation=create");
 
-        Optional<Person> savedPerson = repository.findByEmail(person.getEmail());
-        if (savedPerson.isPresent()){
-            throw new ResourceNotFoundException("Person already exist with given e-Mail: " + person.getEmail());
+        //A create never targets an existing row: with a client supplied id save() would merge into it
+        person.setId(null);
+        person.setVersion(null);
+        //Single INSERT, the unique index on email rejects duplicates atomically even under concurrent creates
+        try {
+            Person saved = repository.saveAndFlush(person);
+            changeFeed.recordSaved(PersonChange.Type.CREATED, saved);
+            afterCommit(() -> {
+                searchIndex.put(saved);
+                snapshot.put(saved);
+                jsonCache.invalidate(saved.getId(), saved.getVersion());
+                forgetReads(saved.getId());
+            });
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new ResourceNotFoundException("Person already exist with given e-Mail: " + person.getEmail());
+            }
+            throw e;
         }
-
-        return repository.save(person);
     }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "update"}, histogram = true)
+    //An async write-behind ack returns the uncommitted input without a version, which must not be cached
+    @CachePut(cacheNames = CacheConfig.PERSON_CACHE, key = "#result.id", unless = "#result.version == null")
     public Person update(Person person) {
 
-        logger.info("Updating one person!");
+        logger.debug("operation=update id={}", person.getId());
 
-        var entity = repository.findById(person.getId()).orElseThrow(
-                () ->  new ResourceNotFoundException("No records found for this id"));
+        //Unconditional updates may be coalesced and batched; conditional ones need the current row right now
+        if (writeBehind.isEnabled() && person.getVersion() == null) {
+            return writeBehind.submit(person);
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("firstName", person.getFirstName());
+        changes.put("lastName", person.getLastName());
+        changes.put("address", person.getAddress());
+        changes.put("gender", person.getGender());
+        changes.put("email", person.getEmail());
+        //Programmatic transaction: the write-behind path above must not hold a connection while it waits
+        return applyChangesInTransaction(person.getId(), changes, person.getVersion());
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "patch"}, histogram = true)
+    @CachePut(cacheNames = CacheConfig.PERSON_CACHE, key = "#result.id")
+    public Person patch(Long id, Map<String, Object> changes, Long expectedVersion) {
 
-        entity.setFirstName(person.getFirstName());
-        entity.setLastName(person.getLastName());
-        entity.setAddress(person.getAddress());
-        entity.setGender(person.getGender());
+        logger.debug("operation=patch id={} fields={}", id, changes.keySet());
 
-        return repository.save(person);
+        return applyChangesInTransaction(id, changes, expectedVersion);
     }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "delete"}, histogram = true)
+    @CacheEvict(cacheNames = CacheConfig.PERSON_CACHE, key = "#id")
+    @Transactional
     public void delete(Long id) {
+        delete(id, null);
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "delete"}, histogram = true)
+    @CacheEvict(cacheNames = CacheConfig.PERSON_CACHE, key = "#id")
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
+
+        logger.debug("operation=delete id={} expectedVersion={}", id, expectedVersion);
+
+        int removed = expectedVersion == null
+                ? repository.deleteByIdReturningCount(id)
+                : repository.deleteByIdAndVersion(id, expectedVersion);
+        if (removed == 0) {
+            //Only the failure path pays a second query, to tell a missing row from a stale version
+            Long current = repository.findVersionById(id).orElseThrow(
+                    () ->  new ResourceNotFoundException("No records found for this id"));
+            throw new PreconditionFailedException("Version " + expectedVersion + " is stale, current is " + current);
+        }
+        changeFeed.recordDeleted(id);
+        afterCommit(() -> {
+            searchIndex.remove(id);
+            snapshot.remove(id);
+            jsonCache.invalidate(id);
+            forgetReads(id);
+        });
+    }
+    //Live feed of committed changes after the given sequence number, replayed from the outbox first
+    public SseEmitter subscribeToChanges(long since) {
+        return changeFeed.subscribe(since);
+    }
+    //True when an unconditional update returns before it is committed (write-behind with async ack)
+    public boolean defersUpdates() {
+        return writeBehind.isEnabled() && writeBehind.isAsyncAck();
+    }
+    //Version currently visible to readers, from the cache when present so a 304 costs no query at all
+    public Long findVersion(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.PERSON_CACHE);
+        Person cached = cache == null ? null : cache.get(id, Person.class);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+        Optional<Long> version = snapshot.isReady() ? snapshot.findVersionById(id) : repository.findVersionById(id);
+        return version.orElse(null);
+    }
+
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "createAll"}, histogram = true)
+    public List<BatchItemResult> createAll(List<Person> people) {
+
+        logger.debug("operation=createAll size={}", people.size());
+
+        //Ids of new rows come from the sequence, whatever the input carried
+        return inChunks(people, person -> null, (offset, chunk) -> {
+            Set<String> emails = chunk.stream()
+                    .map(Person::getEmail)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Set<String> taken = emails.isEmpty() ? new HashSet<>() : new HashSet<>(repository.findEmailsIn(emails));
+
+            List<BatchItemResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Person person = chunk.get(i);
+                String email = person.getEmail();
+                if (email != null && !taken.add(email)) {
+                    results.add(new BatchItemResult(offset + i, null, BatchItemResult.Status.CONFLICT,
+                            "Person already exist with given e-Mail: " + email));
+                    continue;
+                }
+                person.setId(null);
+                person.setVersion(null);
+                Person saved = repository.save(person);
+                changeFeed.recordSaved(PersonChange.Type.CREATED, saved);
+                afterCommit(() -> {
+                    searchIndex.put(saved);
+                    snapshot.put(saved);
+                    forgetReads(saved.getId());
+                });
+                BatchItemResult result = BatchItemResult.of(offset + i, saved.getId(), BatchItemResult.Status.CREATED);
+                result.setVersion(saved.getVersion());
+                results.add(result);
+            }
+            return results;
+        });
+    }
+    //Pulls the stream one chunk at a time, so only BATCH_CHUNK_SIZE people are held however long the input is
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "importAll"}, histogram = true)
+    public ImportSummary importAll(Iterator<Person> people) {
+
+        logger.debug("operation=importAll");
+
+        ImportSummary summary = new ImportSummary();
+        List<Person> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        long offset = 0;
+        while (people.hasNext()) {
+            chunk.add(people.next());
+            if (chunk.size() == BATCH_CHUNK_SIZE || !people.hasNext()) {
+                summary.add(offset, createAll(chunk));
+                offset += chunk.size();
+                chunk.clear();
+            }
+        }
+        return summary;
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "updateAll"}, histogram = true)
+    public List<BatchItemResult> updateAll(List<Person> people) {
+
+        logger.debug("operation=updateAll size={}", people.size());
+
+        return inChunks(people, Person::getId, (offset, chunk) -> {
+            List<Long> ids = distinctIds(chunk.stream().map(Person::getId).toList());
+            List<Person> loaded = ids.isEmpty() ? List.of() : repository.findAllById(ids);
+            LongIntHashMap positionById = new LongIntHashMap(loaded.size());
+            for (int i = 0; i < loaded.size(); i++) {
+                positionById.put(loaded.get(i).getId(), i);
+            }
+
+            List<BatchItemResult> results = new ArrayList<>(chunk.size());
+            List<Person> updated = new ArrayList<>(chunk.size());
+            List<Long> previousVersions = new ArrayList<>(chunk.size());
+            List<BatchItemResult> updatedResults = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Person person = chunk.get(i);
+                int position = person.getId() == null ? -1 : positionById.get(person.getId(), -1);
+                Person entity = position < 0 ? null : loaded.get(position);
+                if (entity == null) {
+                    results.add(BatchItemResult.notFound(offset + i, person.getId()));
+                    continue;
+                }
+                if (person.getVersion() != null && !person.getVersion().equals(entity.getVersion())) {
+                    results.add(new BatchItemResult(offset + i, person.getId(), BatchItemResult.Status.CONFLICT,
+                            "Version " + person.getVersion() + " is stale, current is " + entity.getVersion()));
+                    continue;
+                }
+                //Managed entities: dirty checking turns these into batched UPDATEs at flush
+                updated.add(entity);
+                previousVersions.add(entity.getVersion());
+                entity.setFirstName(person.getFirstName());
+                entity.setLastName(person.getLastName());
+                entity.setAddress(person.getAddress());
+                entity.setGender(person.getGender());
+                entity.setEmail(person.getEmail());
+                afterCommit(() -> {
+                    searchIndex.put(entity);
+                    snapshot.put(entity);
+                    forgetReads(entity.getId());
+                });
+                BatchItemResult result = BatchItemResult.of(offset + i, entity.getId(), BatchItemResult.Status.UPDATED);
+                updatedResults.add(result);
+                results.add(result);
+            }
+            //Flush before commit so the results carry the bumped versions; rows whose values did not change
+            //were not updated at all and stay out of the change feed
+            if (!updated.isEmpty()) {
+                entityManager.flush();
+                for (int i = 0; i < updated.size(); i++) {
+                    Person entity = updated.get(i);
+                    updatedResults.get(i).setVersion(entity.getVersion());
+                    if (changeFeed.isEnabled() && !Objects.equals(previousVersions.get(i), entity.getVersion())) {
+                        changeFeed.recordSaved(PersonChange.Type.UPDATED, entity);
+                    }
+                }
+            }
+            return results;
+        });
+    }
+    @Timed(value = PersonMetrics.SERVICE_TIMER, extraTags = {"operation", "deleteAll"}, histogram = true)
+    public List<BatchItemResult> deleteAll(List<Long> ids) {
+
+        logger.debug("operation=deleteAll size={}", ids.size());
 
-        logger.info("Deleting one person!");
+        return inChunks(ids, Function.identity(), (offset, chunk) -> {
+            List<Long> requested = distinctIds(chunk);
+            List<Long> found = requested.isEmpty() ? List.of() : repository.findIdsIn(requested);
+            LongIntHashMap existing = new LongIntHashMap(found.size());
+            found.forEach(id -> existing.put(id, 1));
+            if (!found.isEmpty()) {
+                repository.deleteAllByIdInBatch(found);
+                found.forEach(changeFeed::recordDeleted);
+                afterCommit(() -> found.forEach(id -> {
+                    searchIndex.remove(id);
+                    snapshot.remove(id);
+                    forgetReads(id);
+                }));
+            }
 
+            List<BatchItemResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Long id = chunk.get(i);
+                results.add(id != null && existing.containsKey(id)
+                        ? BatchItemResult.of(offset + i, id, BatchItemResult.Status.DELETED)
+                        : BatchItemResult.notFound(offset + i, id));
+            }
+            return results;
+        });
+    }
+
+    //An unconditional write that loses the race to a concurrent commit is retried on the fresh row, keeping
+    //last write wins; when the attempts run out the exception reaches the handler as a 409. Inside a caller's
+    //transaction there is nothing to retry on, it is already marked rollback-only
+    private Person applyChangesInTransaction(Long id, Map<String, Object> changes, Long expectedVersion) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyChanges(id, changes, expectedVersion));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_WRITE_ATTEMPTS || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw e;
+                }
+                logger.debug("operation=update id={} attempt={} lost to a concurrent update, retrying", id, attempt);
+            }
+        }
+    }
+    //Sets only the fields that differ on the managed entity; with @DynamicUpdate the UPDATE lists just those
+    //columns, and when none differ Hibernate issues no UPDATE and the version stays the same
+    private Person applyChanges(Long id, Map<String, Object> changes, Long expectedVersion) {
         var entity = repository.findById(id).orElseThrow(
                 () ->  new ResourceNotFoundException("No records found for this id"));
-        repository.delete(entity);
+        checkVersion(entity, expectedVersion);
+
+        boolean changed = false;
+        for (var change : changes.entrySet()) {
+            changed |= applyChange(entity, change.getKey(), change.getValue());
+        }
+        if (!changed) {
+            return entity;
+        }
+        try {
+            //Flush now so the returned entity carries the new version for the ETag; the shared EntityManager
+            //is not exception translated, so the unique index surfaces as a raw PersistenceException here
+            entityManager.flush();
+        } catch (OptimisticLockException e) {
+            //The row passed checkVersion but a concurrent commit bumped its version before this UPDATE ran
+            if (expectedVersion != null) {
+                throw new PreconditionFailedException("Version " + expectedVersion + " was changed by a concurrent update");
+            }
+            throw new ObjectOptimisticLockingFailureException(Person.class, id, e);
+        } catch (PersistenceException e) {
+            if (isEmailConflict(e)) {
+                throw new ResourceNotFoundException("Person already exist with given e-Mail: " + entity.getEmail());
+            }
+            throw e;
+        }
+        changeFeed.recordSaved(PersonChange.Type.UPDATED, entity);
+        afterCommit(() -> {
+            searchIndex.put(entity);
+            snapshot.put(entity);
+            jsonCache.invalidate(entity.getId(), entity.getVersion());
+            forgetReads(entity.getId());
+        });
+        return entity;
+    }
+    private static boolean applyChange(Person entity, String field, Object value) {
+        if (value != null && !(value instanceof String)) {
+            throw new BadRequestException("Field '" + field + "' must be a string");
+        }
+        if (value == null && !field.equals("email")) {
+            throw new BadRequestException("Field '" + field + "' cannot be null");
+        }
+        String text = (String) value;
+        return switch (field) {
+            case "firstName" -> set(entity.getFirstName(), text, entity::setFirstName);
+            case "lastName" -> set(entity.getLastName(), text, entity::setLastName);
+            case "address" -> set(entity.getAddress(), text, entity::setAddress);
+            case "gender" -> set(entity.getGender(), text, entity::setGender);
+            case "email" -> set(entity.getEmail(), text, entity::setEmail);
+            default -> throw new BadRequestException("Field '" + field + "' cannot be patched, expected any of "
+                    + "[firstName, lastName, address, gender, email]");
+        };
+    }
+    private static boolean set(String current, String value, Consumer<String> setter) {
+        if (Objects.equals(current, value)) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+    //Runs each chunk in its own transaction and does not roll back the others when one fails. The items of a
+    //failed chunk are retried one transaction each, so a single bad row is reported alone instead of failing 499 good ones
+    private <T> List<BatchItemResult> inChunks(List<T> items, Function<T, Long> idOf,
+                                               BiFunction<Integer, List<T>, List<BatchItemResult>> writer) {
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += BATCH_CHUNK_SIZE) {
+            List<T> chunk = items.subList(from, Math.min(from + BATCH_CHUNK_SIZE, items.size()));
+            try {
+                results.addAll(writeChunk(from, chunk, writer));
+            } catch (RuntimeException e) {
+                if (chunk.size() == 1) {
+                    results.add(failed(from, idOf(chunk.get(0), idOf), e));
+                    continue;
+                }
+                logger.debug("operation=batch chunk at {} failed, retrying its {} items one by one", from, chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    T item = chunk.get(i);
+                    try {
+                        results.addAll(writeChunk(from + i, Collections.singletonList(item), writer));
+                    } catch (RuntimeException itemError) {
+                        results.add(failed(from + i, idOf(item, idOf), itemError));
+                    }
+                }
+            }
+        }
+        return results;
+    }
+    private <T> List<BatchItemResult> writeChunk(int offset, List<T> chunk,
+                                                 BiFunction<Integer, List<T>, List<BatchItemResult>> writer) {
+        List<BatchItemResult> written = transactionTemplate.execute(status -> {
+            List<BatchItemResult> chunkResults = writer.apply(offset, chunk);
+            entityManager.flush();
+            entityManager.clear();
+            return chunkResults;
+        });
+        evictCached(written);
+        return written;
+    }
+    //Nothing of a failed item was committed, but its cached copies are dropped anyway: a caller such as the
+    //write-behind buffer may have handed out the uncommitted values already
+    private BatchItemResult failed(int index, Long id, RuntimeException error) {
+        BatchItemResult result = BatchItemResult.failed(index, id, error.getMessage());
+        evictCached(List.of(result));
+        return result;
+    }
+    private static <T> Long idOf(T item, Function<T, Long> idOf) {
+        return item == null ? null : idOf.apply(item);
+    }
+    //Sparse fieldset from ?fields=a,b,c; id is always part of it since it is the resource key and the page cursor
+    private static List<String> parseFields(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) continue;
+            if (!PersonRepositoryCustom.PROJECTABLE_FIELDS.contains(name)) {
+                throw new BadRequestException("Unknown field '" + name + "', expected any of "
+                        + PersonRepositoryCustom.PROJECTABLE_FIELDS);
+            }
+            selected.add(name);
+        }
+        return new ArrayList<>(selected);
+    }
+    //Reads arriving after a commit must not join a query that may have started before it
+    private void forgetReads(Long id) {
+        singleFlight.forget("findById", id);
+        singleFlight.forgetAll("findAll");
+        singleFlight.forgetAll("findPage");
+    }
+    //In-memory side effects of a chunk only become visible if its transaction commits
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    //Drops nulls and repeated ids without boxing a HashSet entry per id
+    private static List<Long> distinctIds(List<Long> ids) {
+        LongIntHashMap seen = new LongIntHashMap(ids.size());
+        List<Long> distinct = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (id != null && seen.put(id, 1, 0) == 0) distinct.add(id);
+        }
+        return distinct;
+    }
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+    private static void checkVersion(Person entity, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new PreconditionFailedException("Version " + expectedVersion + " is stale, current is " + entity.getVersion());
+        }
+    }
+    //Walks the causes: translated DataIntegrityViolationExceptions and raw PersistenceExceptions both wrap it
+    private static boolean isEmailConflict(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return Person.EMAIL_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+    private void evictCached(List<BatchItemResult> results) {
+        Cache cache = cacheManager.getCache(CacheConfig.PERSON_CACHE);
+        for (BatchItemResult result : results) {
+            if (result.getId() != null) {
+                if (cache != null) cache.evict(result.getId());
+                jsonCache.invalidate(result.getId(), result.getVersion());
+            }
+        }
     }
 }
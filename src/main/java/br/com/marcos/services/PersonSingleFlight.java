@@ -0,0 +1,107 @@
+package br.com.marcos.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-flight for database reads: concurrent calls with the same operation and arguments share one
+ * repository call and its result (or exception). A flight is forgotten as soon as it finishes and
+ * whenever PersonServices commits a write to the rows it reads, so a caller arriving after a write
+ * always starts a new query instead of joining one that may predate the write. Results that callers
+ * may change, such as entities, are shared through a copy function, so every joined caller gets its
+ * own detached copy and only the leader holds the instance the repository returned.
+ */
+@Component
+public class PersonSingleFlight {
+
+    public static final String REQUESTS = "person.singleflight.requests";
+
+    private record Key(String operation, Object arguments) {}
+
+    @Value("${app.single-flight.enabled:true}")
+    boolean enabled = true;
+
+    @Autowired(required = false)
+    MeterRegistry registry;
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        if (registry == null) return;
+        Gauge.builder("person.singleflight.in.flight", inFlight, Map::size)
+                .register(registry);
+    }
+
+    //Runs the loader, or waits for the identical one already running; the arguments must have value equality
+    public <T> T execute(String operation, Object arguments, Supplier<T> loader) {
+        return execute(operation, arguments, loader, UnaryOperator.identity());
+    }
+
+    //Same, but a caller that joined a running flight gets copy applied to the shared result
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object arguments, Supplier<T> loader, UnaryOperator<T> copy) {
+        if (!enabled) return loader.get();
+
+        Key key = new Key(operation, arguments);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            count(operation, "coalesced");
+            return copy.apply((T) await(running));
+        }
+        count(operation, "leader");
+        T result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        //Removed before completing, so nobody joins a flight whose result is already on its way out
+        inFlight.remove(key, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    //Later callers start a new flight; the ones already waiting still get the running one's result
+    public void forget(String operation, Object arguments) {
+        inFlight.remove(new Key(operation, arguments));
+    }
+
+    public void forgetAll(String operation) {
+        inFlight.keySet().removeIf(key -> key.operation().equals(operation));
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void count(String operation, String outcome) {
+        if (registry != null) {
+            registry.counter(REQUESTS, "operation", operation, "outcome", outcome).increment();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package br.com.marcos.services;
+
+import br.com.marcos.model.Person;
+import br.com.marcos.util.LongIntHashMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar copy of the person table kept in direct (off-heap) buffers, so a large table costs the GC
+ * a few arrays instead of millions of Person objects. Gender, the one low-cardinality column, is
+ * dictionary encoded on the heap; the other strings live UTF-8 encoded in an append-only arena.
+ * Like PersonSearchIndex, a write tombstones the old row and appends a new one, and the buffers and
+ * the dictionary are rebuilt from the live rows once half of the rows are dead. A sorted array of
+ * the live ids answers keyset pages. Only writes made through PersonServices reach it, so it suits
+ * single instance, read-mostly deployments; direct memory is bounded by -XX:MaxDirectMemorySize and
+ * only allocated once the snapshot is enabled and written to.
+ */
+@Component
+public class PersonSnapshot {
+
+    private static final int NULL = -1;
+    private static final long NO_VERSION = Long.MIN_VALUE;
+    private static final int INITIAL_ROWS = 1024;
+
+    @Value("${app.snapshot.enabled:false}")
+    boolean enabled;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap rowById = new LongIntHashMap(INITIAL_ROWS);
+    private final BitSet deleted = new BitSet();
+    //Dictionary of the gender column
+    private List<String> dictionary = new ArrayList<>();
+    private Map<String, Integer> codes = new HashMap<>();
+    //Live ids in ascending order for keyset pages; ids from the sequence grow, so a create usually appends
+    private long[] sortedIds = new long[0];
+    private int sortedCount;
+    //Ids written through the services while the initial load runs; the loaded copy of those is stale
+    private LongIntHashMap touchedWhileLoading = new LongIntHashMap();
+    private volatile boolean ready;
+
+    //One buffer per column: id and version are longs, the rest are int references
+    private ByteBuffer ids;
+    private ByteBuffer versions;
+    private ByteBuffer firstNames;
+    private ByteBuffer lastNames;
+    private ByteBuffer emails;
+    private ByteBuffer genders;
+    private ByteBuffer addresses;
+    //[length][utf-8 bytes] entries referenced by offset from the string columns
+    private ByteBuffer strings;
+    private int stringsSize;
+    private int rows;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("person.snapshot.rows", this, PersonSnapshot::size)
+                .register(registry);
+        Gauge.builder("person.snapshot.offheap.bytes", this, PersonSnapshot::offHeapBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //Reads may only be served once the whole table has been loaded
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    //Initial load from the database, skips rows the services changed in the meantime
+    public void load(Person person) {
+        if (!enabled || person.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            if (touchedWhileLoading != null && touchedWhileLoading.containsKey(person.getId())) return;
+            write(person);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markLoaded() {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            touchedWhileLoading = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Person person) {
+        if (!enabled || person.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            if (touchedWhileLoading != null) touchedWhileLoading.put(person.getId(), 1);
+            write(person);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (!enabled || id == null) return;
+        lock.writeLock().lock();
+        try {
+            if (touchedWhileLoading != null) touchedWhileLoading.put(id, 1);
+            int row = rowById.remove(id, NULL);
+            if (row != NULL) {
+                deleted.set(row);
+                removeSorted(id);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Person> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            int row = rowById.get(id, NULL);
+            return row == NULL ? Optional.empty() : Optional.of(read(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Long> findVersionById(Long id) {
+        lock.readLock().lock();
+        try {
+            int row = rowById.get(id, NULL);
+            if (row == NULL) return Optional.empty();
+            long version = versions.getLong(row * Long.BYTES);
+            return version == NO_VERSION ? Optional.empty() : Optional.of(version);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Up to limit rows with an id greater than after, in id order, like the keyset query of the repository
+    public List<Person> findPage(long after, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = Arrays.binarySearch(sortedIds, 0, sortedCount, after);
+            from = from >= 0 ? from + 1 : -from - 1;
+            int to = (int) Math.min(sortedCount, (long) from + limit);
+            List<Person> people = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                people.add(read(rowById.get(sortedIds[i], NULL)));
+            }
+            return people;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Materializes short-lived Person objects, the snapshot itself stays off-heap
+    public List<Person> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Person> people = new ArrayList<>(rowById.size());
+            for (int row = 0; row < rows; row++) {
+                if (!deleted.get(row)) people.add(read(row));
+            }
+            return people;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            if (ids == null) return 0;
+            return (long) ids.capacity() + versions.capacity() + firstNames.capacity() + lastNames.capacity()
+                    + emails.capacity() + genders.capacity() + addresses.capacity() + strings.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int dictionarySize() {
+        lock.readLock().lock();
+        try {
+            return dictionary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Person person) {
+        if (ids == null) {
+            allocate(INITIAL_ROWS, 64 * INITIAL_ROWS);
+        }
+        int old = rowById.remove(person.getId(), NULL);
+        if (old != NULL) {
+            deleted.set(old);
+        } else {
+            insertSorted(person.getId());
+        }
+        int row = append(person.getId(), person.getVersion() == null ? NO_VERSION : person.getVersion(),
+                person.getFirstName(), person.getLastName(), person.getEmail(), person.getGender(), person.getAddress());
+        rowById.put(person.getId(), row);
+        compactIfNeeded();
+    }
+
+    private void insertSorted(long id) {
+        if (sortedCount == sortedIds.length) {
+            sortedIds = Arrays.copyOf(sortedIds, Math.max(INITIAL_ROWS, sortedCount * 2));
+        }
+        if (sortedCount == 0 || id > sortedIds[sortedCount - 1]) {
+            sortedIds[sortedCount++] = id;
+            return;
+        }
+        int at = -Arrays.binarySearch(sortedIds, 0, sortedCount, id) - 1;
+        System.arraycopy(sortedIds, at, sortedIds, at + 1, sortedCount - at);
+        sortedIds[at] = id;
+        sortedCount++;
+    }
+
+    private void removeSorted(long id) {
+        int at = Arrays.binarySearch(sortedIds, 0, sortedCount, id);
+        if (at < 0) return;
+        System.arraycopy(sortedIds, at + 1, sortedIds, at, sortedCount - at - 1);
+        sortedCount--;
+    }
+
+    private int append(long id, long version, String firstName, String lastName, String email, String gender, String address) {
+        int row = rows++;
+        if (row * Long.BYTES == ids.capacity()) {
+            growRows(row * 2);
+        }
+        ids.putLong(row * Long.BYTES, id);
+        versions.putLong(row * Long.BYTES, version);
+        firstNames.putInt(row * Integer.BYTES, appendString(firstName));
+        lastNames.putInt(row * Integer.BYTES, appendString(lastName));
+        emails.putInt(row * Integer.BYTES, appendString(email));
+        genders.putInt(row * Integer.BYTES, encode(gender));
+        addresses.putInt(row * Integer.BYTES, appendString(address));
+        return row;
+    }
+
+    private Person read(int row) {
+        Person person = new Person(ids.getLong(row * Long.BYTES),
+                readString(strings, firstNames.getInt(row * Integer.BYTES)),
+                readString(strings, lastNames.getInt(row * Integer.BYTES)),
+                readString(strings, addresses.getInt(row * Integer.BYTES)),
+                decode(dictionary, genders.getInt(row * Integer.BYTES)),
+                readString(strings, emails.getInt(row * Integer.BYTES)));
+        long version = versions.getLong(row * Long.BYTES);
+        person.setVersion(version == NO_VERSION ? null : version);
+        return person;
+    }
+
+    private int appendString(String value) {
+        if (value == null) return NULL;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int needed = stringsSize + Integer.BYTES + bytes.length;
+        if (needed > strings.capacity()) {
+            strings = grow(strings, Math.max(needed, strings.capacity() * 2));
+        }
+        int offset = stringsSize;
+        strings.putInt(offset, bytes.length);
+        strings.put(offset + Integer.BYTES, bytes);
+        stringsSize = needed;
+        return offset;
+    }
+
+    private static String readString(ByteBuffer arena, int offset) {
+        if (offset == NULL) return null;
+        byte[] bytes = new byte[arena.getInt(offset)];
+        arena.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int encode(String value) {
+        if (value == null) return NULL;
+        return codes.computeIfAbsent(value, key -> {
+            dictionary.add(key);
+            return dictionary.size() - 1;
+        });
+    }
+
+    private static String decode(List<String> dictionary, int code) {
+        return code == NULL ? null : dictionary.get(code);
+    }
+
+    //Rewrites the live rows into fresh buffers and a fresh dictionary, which drops the dead strings from both
+    private void compactIfNeeded() {
+        int dead = rows - rowById.size();
+        if (rows < INITIAL_ROWS || dead * 2 < rows) return;
+
+        ByteBuffer oldIds = ids, oldVersions = versions, oldFirstNames = firstNames, oldLastNames = lastNames,
+                oldEmails = emails, oldGenders = genders, oldAddresses = addresses, oldStrings = strings;
+        List<String> oldDictionary = dictionary;
+        int oldRows = rows;
+        int live = rowById.size();
+        allocate(Math.max(INITIAL_ROWS, Integer.highestOneBit(live) << 1), Math.max(64 * INITIAL_ROWS, stringsSize / 2));
+        stringsSize = 0;
+        rows = 0;
+        dictionary = new ArrayList<>();
+        codes = new HashMap<>();
+
+        for (int row = 0; row < oldRows; row++) {
+            if (deleted.get(row)) continue;
+            long id = oldIds.getLong(row * Long.BYTES);
+            int newRow = append(id, oldVersions.getLong(row * Long.BYTES),
+                    readString(oldStrings, oldFirstNames.getInt(row * Integer.BYTES)),
+                    readString(oldStrings, oldLastNames.getInt(row * Integer.BYTES)),
+                    readString(oldStrings, oldEmails.getInt(row * Integer.BYTES)),
+                    decode(oldDictionary, oldGenders.getInt(row * Integer.BYTES)),
+                    readString(oldStrings, oldAddresses.getInt(row * Integer.BYTES)));
+            rowById.put(id, newRow);
+        }
+        deleted.clear();
+    }
+
+    private void allocate(int rowCapacity, int stringCapacity) {
+        ids = ByteBuffer.allocateDirect(rowCapacity * Long.BYTES);
+        versions = ByteBuffer.allocateDirect(rowCapacity * Long.BYTES);
+        firstNames = ByteBuffer.allocateDirect(rowCapacity * Integer.BYTES);
+        lastNames = ByteBuffer.allocateDirect(rowCapacity * Integer.BYTES);
+        emails = ByteBuffer.allocateDirect(rowCapacity * Integer.BYTES);
+        genders = ByteBuffer.allocateDirect(rowCapacity * Integer.BYTES);
+        addresses = ByteBuffer.allocateDirect(rowCapacity * Integer.BYTES);
+        strings = ByteBuffer.allocateDirect(stringCapacity);
+    }
+
+    private void growRows(int rowCapacity) {
+        ids = grow(ids, rowCapacity * Long.BYTES);
+        versions = grow(versions, rowCapacity * Long.BYTES);
+        firstNames = grow(firstNames, rowCapacity * Integer.BYTES);
+        lastNames = grow(lastNames, rowCapacity * Integer.BYTES);
+        emails = grow(emails, rowCapacity * Integer.BYTES);
+        genders = grow(genders, rowCapacity * Integer.BYTES);
+        addresses = grow(addresses, rowCapacity * Integer.BYTES);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        grown.put(0, buffer, 0, buffer.capacity());
+        return grown;
+    }
+}
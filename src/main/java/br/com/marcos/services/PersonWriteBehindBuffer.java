@@ -0,0 +1,222 @@
+package br.com.marcos.services;
+
+import br.com.marcos.exceptions.PreconditionFailedException;
+import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.exceptions.ServiceUnavailableException;
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.Person;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind for unconditional updates. Updates are coalesced per id, the last one wins,
+ * and written by PersonServices.updateAll in batched transactions once max-batch ids are pending or
+ * every flush-interval-ms. With ack=sync the caller waits for the commit of its batch (group commit) and
+ * gets the committed row with its new version; with ack=async it returns right away and a crash loses
+ * whatever was still buffered.
+ */
+@Component
+@Profile("!reactive")
+public class PersonWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonWriteBehindBuffer.class);
+
+    @Value("${app.write-behind.enabled:false}")
+    boolean enabled;
+
+    @Value("${app.write-behind.ack:sync}")
+    String ack;
+
+    @Value("${app.write-behind.max-batch:500}")
+    int maxBatch;
+
+    //Past this many pending ids the submitting thread flushes itself, which throttles the producers
+    @Value("${app.write-behind.max-pending:10000}")
+    int maxPending;
+
+    @Value("${app.write-behind.flush-interval-ms:50}")
+    long flushIntervalMs;
+
+    @Value("${app.write-behind.ack-timeout-ms:5000}")
+    long ackTimeoutMs;
+
+    //Lazy: PersonServices submits to this buffer, which in turn flushes through PersonServices
+    @Lazy
+    @Autowired
+    PersonServices services;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<Long, Pending> pending = new LinkedHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private Timer flushTimer;
+    private DistributionSummary batchSize;
+    private Counter coalesced;
+    private Counter failed;
+
+    private static final class Pending {
+        private Person person;
+        private final List<CompletableFuture<Person>> waiters = new ArrayList<>(1);
+    }
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("person.writebehind.pending", this, PersonWriteBehindBuffer::size)
+                .register(registry);
+        flushTimer = Timer.builder("person.writebehind.flush")
+                .publishPercentileHistogram()
+                .register(registry);
+        batchSize = DistributionSummary.builder("person.writebehind.batch.size")
+                .register(registry);
+        coalesced = Counter.builder("person.writebehind.coalesced")
+                .register(registry);
+        failed = Counter.builder("person.writebehind.failed")
+                .register(registry);
+        if (!enabled) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                runnable -> Thread.ofPlatform().name("person-write-behind").daemon().unstarted(runnable));
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    //Drains what is still buffered so a clean shutdown loses nothing
+    @PreDestroy
+    void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isAsyncAck() {
+        return "async".equalsIgnoreCase(ack);
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    public Person submit(Person person) {
+        CompletableFuture<Person> acknowledged = new CompletableFuture<>();
+        int depth;
+        synchronized (this) {
+            Pending entry = pending.get(person.getId());
+            if (entry == null) {
+                entry = new Pending();
+                pending.put(person.getId(), entry);
+            } else {
+                coalesced.increment();
+            }
+            entry.person = person;
+            entry.waiters.add(acknowledged);
+            depth = pending.size();
+        }
+        if (depth >= maxPending) {
+            flush();
+        } else if (depth >= maxBatch && scheduler != null) {
+            scheduler.execute(this::flushQuietly);
+        }
+        if (isAsyncAck()) {
+            return person;
+        }
+        try {
+            return acknowledged.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Update of person " + person.getId() + " not committed within "
+                    + ackTimeoutMs + "ms, it may still be applied");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //One flush at a time, so batches commit in the order they were cut
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Pending> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) return;
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+            List<Pending> entries = new ArrayList<>(batch.values());
+            List<Person> people = entries.stream().map(entry -> entry.person).toList();
+            batchSize.record(people.size());
+
+            List<BatchItemResult> results;
+            Timer.Sample sample = Timer.start(registry);
+            try {
+                results = services.updateAll(people);
+            } catch (RuntimeException e) {
+                failed.increment(people.size());
+                entries.forEach(entry -> entry.waiters.forEach(waiter -> waiter.completeExceptionally(e)));
+                throw e;
+            } finally {
+                sample.stop(flushTimer);
+            }
+
+            for (BatchItemResult result : results) {
+                Pending entry = entries.get(result.getIndex());
+                RuntimeException error = switch (result.getStatus()) {
+                    case UPDATED -> null;
+                    case NOT_FOUND -> new ResourceNotFoundException("No records found for this id");
+                    case CONFLICT -> new PreconditionFailedException(result.getMessage());
+                    default -> new IllegalStateException(result.getMessage());
+                };
+                if (error == null) {
+                    //What was committed: the submitted values with the version the flush gave them
+                    Person committed = new Person(entry.person);
+                    committed.setVersion(result.getVersion());
+                    entry.waiters.forEach(waiter -> waiter.complete(committed));
+                } else {
+                    failed.increment();
+                    logger.debug("operation=writeBehindFlush id={} status={}", result.getId(), result.getStatus());
+                    entry.waiters.forEach(waiter -> waiter.completeExceptionally(error));
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Write-behind flush failed", e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package br.com.marcos.util;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Open-addressing map from primitive long keys to int values, for id and trigram lookups that would
+ * otherwise box a Long and allocate a HashMap node per entry. Linear probing over two parallel
+ * arrays; removal shifts the following entries back, so there are no tombstones. Not thread safe.
+ */
+public final class LongIntHashMap {
+
+    @FunctionalInterface
+    public interface Entry {
+        void accept(long key, int value);
+    }
+
+    //0 marks a free slot in keys[], the key 0 itself is stored on the side
+    private static final long FREE = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size + (hasFreeKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE) return hasFreeKey;
+        return keys[indexOf(key)] != FREE;
+    }
+
+    public int get(long key, int defaultValue) {
+        if (key == FREE) return hasFreeKey ? freeKeyValue : defaultValue;
+        int index = indexOf(key);
+        return keys[index] == FREE ? defaultValue : values[index];
+    }
+
+    //Returns the previous value, or defaultValue when the key was absent
+    public int put(long key, int value, int defaultValue) {
+        if (key == FREE) {
+            int previous = hasFreeKey ? freeKeyValue : defaultValue;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return previous;
+        }
+        int index = indexOf(key);
+        if (keys[index] != FREE) {
+            int previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return defaultValue;
+    }
+
+    public void put(long key, int value) {
+        put(key, value, 0);
+    }
+
+    //Returns the removed value, or defaultValue when the key was absent
+    public int remove(long key, int defaultValue) {
+        if (key == FREE) {
+            int previous = hasFreeKey ? freeKeyValue : defaultValue;
+            hasFreeKey = false;
+            return previous;
+        }
+        int gap = indexOf(key);
+        if (keys[gap] == FREE) return defaultValue;
+        int previous = values[gap];
+
+        //Backward shift: pull later entries of the probe run into the gap when their home slot allows it
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE;
+        values[gap] = 0;
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, 0);
+        size = 0;
+        hasFreeKey = false;
+    }
+
+    public void forEach(Entry action) {
+        if (hasFreeKey) action.accept(FREE, freeKeyValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) action.accept(keys[i], values[i]);
+        }
+    }
+
+    public void replaceValues(IntUnaryOperator function) {
+        if (hasFreeKey) freeKeyValue = function.applyAsInt(freeKeyValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) values[i] = function.applyAsInt(values[i]);
+        }
+    }
+
+    public long[] keys() {
+        long[] result = new long[size()];
+        int i = 0;
+        if (hasFreeKey) result[i++] = FREE;
+        for (long key : keys) {
+            if (key != FREE) result[i++] = key;
+        }
+        return result;
+    }
+
+    //Retained heap of the two arrays, 12 bytes per slot instead of ~48-64 per HashMap<Long, ?> entry
+    public long estimatedBytes() {
+        return 16L + 8L * keys.length + 16L + 4L * values.length;
+    }
+
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (keys[index] != FREE && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
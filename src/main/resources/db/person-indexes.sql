@@ -0,0 +1,6 @@
+-- Indexes Hibernate DDL cannot express, applied after the schema update (spring.jpa.defer-datasource-initialization)
+-- text_pattern_ops lets LIKE 'prefix%' use a btree range scan whatever the database collation is
+CREATE INDEX IF NOT EXISTS idx_person_address_prefix ON person (address text_pattern_ops);
+-- The outbox publisher only ever scans unpublished rows, keep that index as small as the backlog
+CREATE INDEX IF NOT EXISTS idx_person_change_unpublished ON person_change (id) WHERE published_seq IS NULL;
+CREATE INDEX IF NOT EXISTS idx_person_change_published_at ON person_change (published_at);
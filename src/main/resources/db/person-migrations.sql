@@ -0,0 +1,22 @@
+-- Data fixes for tables created by older versions, applied after the schema update on every start; each one is idempotent
+-- person.id came from an identity column before person_seq: move the sequence past every existing id so the pooled
+-- generator never hands out one that is taken. GREATEST keeps it from going back below blocks other instances hold
+SELECT setval('person_seq', GREATEST((SELECT last_value FROM person_seq), (SELECT COALESCE(MAX(id), 0) FROM person) + 50));
+-- Rows from before optimistic locking have a null version: Hibernate can neither increment it nor hand it out as an
+-- ETag, so those rows start at 0 like new ones
+UPDATE person SET version = 0 WHERE version IS NULL;
+-- ddl-auto only adds uk_person_email to an existing table when no email repeats, and swallows the failure otherwise,
+-- leaving duplicates accepted from then on. Create it here instead, and refuse to start while duplicates block it.
+-- The body is single quoted, not dollar quoted, so the script splitter does not cut it at its semicolons
+DO '
+DECLARE
+    duplicates bigint;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''uk_person_email'' AND conrelid = ''person''::regclass) THEN
+        SELECT COUNT(*) INTO duplicates FROM (SELECT email FROM person WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1) repeated;
+        IF duplicates > 0 THEN
+            RAISE EXCEPTION ''% e-mails are used by more than one person, merge or change them so uk_person_email can be created'', duplicates;
+        END IF;
+        ALTER TABLE person ADD CONSTRAINT uk_person_email UNIQUE (email);
+    END IF;
+END';
@@ -0,0 +1,40 @@
+package br.com.marcos.benchmarks;
+
+import br.com.marcos.Startup;
+import br.com.marcos.model.Person;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Boots the real application against an in-memory H2 so benchmarks need neither Docker nor Postgres
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {}
+
+    static ConfigurableApplicationContext start(WebApplicationType type) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(Startup.class)
+                .web(type)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.sql.init.mode=never",
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+    }
+
+    static List<Person> people(String prefix, int count) {
+        List<Person> people = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            people.add(new Person("Marcos " + i, "Dutra", "Uberlândia - MG - Brasil",
+                    i % 2 == 0 ? "Male" : "Female", prefix + i + "@benchmark.com"));
+        }
+        return people;
+    }
+}
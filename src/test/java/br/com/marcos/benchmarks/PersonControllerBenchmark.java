@@ -0,0 +1,75 @@
+package br.com.marcos.benchmarks;
+
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.services.PersonServices;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+//Full DispatcherServlet round trip (argument resolution, handler, message converters) without the network
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonControllerBenchmark {
+
+    private static final int PEOPLE = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private long[] ids;
+    private int next;
+    private long created;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContexts.start(WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        ids = context.getBean(PersonServices.class)
+                .createAll(BenchmarkContexts.people("seed", PEOPLE)).stream()
+                .map(BatchItemResult::getId)
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long nextId() {
+        next = (next + 1) % ids.length;
+        return ids[next];
+    }
+
+    @Benchmark
+    public MvcResult findById() throws Exception {
+        return mockMvc.perform(get("/person/{id}", nextId())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult findPage() throws Exception {
+        return mockMvc.perform(get("/person").param("after", String.valueOf(nextId()))).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult create() throws Exception {
+        return mockMvc.perform(post("/person")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Marcos\",\"lastName\":\"Dutra\",\"address\":\"Uberlândia - MG - Brasil\","
+                                + "\"gender\":\"Male\",\"email\":\"created" + (created++) + "@benchmark.com\"}"))
+                .andReturn();
+    }
+}
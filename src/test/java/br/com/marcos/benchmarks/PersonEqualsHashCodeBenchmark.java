@@ -0,0 +1,41 @@
+package br.com.marcos.benchmarks;
+
+import br.com.marcos.model.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonEqualsHashCodeBenchmark {
+
+    private Person person;
+    private Person equalPerson;
+    private Person otherPerson;
+
+    @Setup
+    public void setup() {
+        person = new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com");
+        equalPerson = new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com");
+        otherPerson = new Person(1L, "Marcos", "Dutra", "São Paulo", "Male", "mhredbluz@gmail.com");
+    }
+
+    @Benchmark
+    public int hashCodePerson() {
+        return person.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsSameFields() {
+        return person.equals(equalPerson);
+    }
+
+    @Benchmark
+    public boolean equalsDifferentAddress() {
+        return person.equals(otherPerson);
+    }
+}
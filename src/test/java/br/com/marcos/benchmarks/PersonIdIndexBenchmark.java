@@ -0,0 +1,77 @@
+package br.com.marcos.benchmarks;
+
+import br.com.marcos.model.Person;
+import br.com.marcos.util.LongIntHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and probing an index of one million person ids. Run with the gc profiler (the benchmark
+ * profile does) and compare gc.alloc.rate.norm: it is the heap allocated per million ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PersonIdIndexBenchmark {
+
+    private static final int IDS = 1_000_000;
+
+    private long[] ids;
+    private Person person;
+    private LongIntHashMap primitiveIndex;
+    private Map<Long, Person> boxedIndex;
+
+    @Setup
+    public void setup() {
+        ids = new long[IDS];
+        for (int i = 0; i < IDS; i++) {
+            //Sequence ids with gaps, like a table that has seen deletes
+            ids[i] = 1L + i * 3L;
+        }
+        person = new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com");
+        primitiveIndex = buildLongIntHashMap();
+        boxedIndex = buildHashMap();
+    }
+
+    @Benchmark
+    public LongIntHashMap buildLongIntHashMap() {
+        LongIntHashMap index = new LongIntHashMap(IDS);
+        for (int i = 0; i < IDS; i++) {
+            index.put(ids[i], i);
+        }
+        return index;
+    }
+
+    @Benchmark
+    public Map<Long, Person> buildHashMap() {
+        Map<Long, Person> index = new HashMap<>(IDS * 4 / 3 + 1);
+        for (int i = 0; i < IDS; i++) {
+            index.put(ids[i], person);
+        }
+        return index;
+    }
+
+    @Benchmark
+    public long lookupLongIntHashMap() {
+        long found = 0;
+        for (int i = 0; i < IDS; i++) {
+            found += primitiveIndex.get(ids[i] + (i & 1), -1) >= 0 ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long lookupHashMap() {
+        long found = 0;
+        for (int i = 0; i < IDS; i++) {
+            found += boxedIndex.get(ids[i] + (i & 1)) != null ? 1 : 0;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.marcos.benchmarks;
+
+import br.com.marcos.model.Person;
+import br.com.marcos.services.PersonJsonCache;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonJsonBenchmark {
+
+    private static final TypeReference<List<Person>> PERSON_LIST = new TypeReference<>() {};
+
+    @Param({"100", "1000"})
+    int listSize;
+
+    private ObjectMapper mapper;
+    private Person person;
+    private List<Person> people;
+    private byte[] personJson;
+    private byte[] peopleJson;
+    private PersonJsonCache jsonCache;
+
+    @Setup
+    public void setup() throws Exception {
+        //Same defaults Spring MVC applies to its message converters
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        person = new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com");
+        people = LongStream.rangeClosed(1, listSize)
+                .mapToObj(id -> new Person(id, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", id + "@gmail.com"))
+                .toList();
+        personJson = mapper.writeValueAsBytes(person);
+        peopleJson = mapper.writeValueAsBytes(people);
+
+        jsonCache = new PersonJsonCache();
+        ReflectionTestUtils.setField(jsonCache, "mapper", mapper);
+        ReflectionTestUtils.setField(jsonCache, "enabled", true);
+        ReflectionTestUtils.setField(jsonCache, "maxBytes", 64L * 1024 * 1024);
+        ReflectionTestUtils.invokeMethod(jsonCache, "init");
+        people.forEach(each -> each.setVersion(0L));
+        jsonCache.array(people);
+    }
+
+    @Benchmark
+    public byte[] serializePerson() throws Exception {
+        return mapper.writeValueAsBytes(person);
+    }
+
+    @Benchmark
+    public Person deserializePerson() throws Exception {
+        return mapper.readValue(personJson, Person.class);
+    }
+
+    @Benchmark
+    public byte[] serializePersonList() throws Exception {
+        return mapper.writeValueAsBytes(people);
+    }
+
+    //Same page as serializePersonList, assembled from the pre-serialized fragments
+    @Benchmark
+    public byte[] concatenateCachedPersonList() {
+        return jsonCache.array(people);
+    }
+
+    @Benchmark
+    public List<Person> deserializePersonList() throws Exception {
+        return mapper.readValue(peopleJson, PERSON_LIST);
+    }
+}
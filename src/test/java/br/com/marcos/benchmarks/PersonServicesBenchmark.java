@@ -0,0 +1,79 @@
+package br.com.marcos.benchmarks;
+
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.Person;
+import br.com.marcos.services.PersonServices;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonServicesBenchmark {
+
+    private static final int PEOPLE = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private PersonServices services;
+    private long[] ids;
+    private String[] emails;
+    private int next;
+    private long created;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE);
+        services = context.getBean(PersonServices.class);
+        List<Person> seed = BenchmarkContexts.people("seed", PEOPLE);
+        emails = seed.stream().map(Person::getEmail).toArray(String[]::new);
+        ids = services.createAll(seed).stream()
+                .map(BatchItemResult::getId)
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long nextId() {
+        next = (next + 1) % ids.length;
+        return ids[next];
+    }
+
+    @Benchmark
+    public Person findById() {
+        return services.findById(nextId());
+    }
+
+    @Benchmark
+    public Slice<Person> findPage() {
+        return services.findPage(nextId(), PersonServices.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Person create() {
+        return services.create(new Person("Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male",
+                "created" + (created++) + "@benchmark.com"));
+    }
+
+    @Benchmark
+    public Person update() {
+        long id = nextId();
+        return services.update(new Person(id, "Marcos", "Dutra", "São Paulo - SP - Brasil", "Male", emails[next]));
+    }
+
+    @Benchmark
+    public List<BatchItemResult> createBatchOf100() {
+        return services.createAll(BenchmarkContexts.people("batch" + (created++) + "-", 100));
+    }
+}
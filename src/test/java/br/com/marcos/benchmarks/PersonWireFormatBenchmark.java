@@ -0,0 +1,65 @@
+package br.com.marcos.benchmarks;
+
+import br.com.marcos.model.Person;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Encode/decode time of a person page in each wire format offered by PersonController. Payload sizes
+ * are printed once per trial, next to the timings in the JMH output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonWireFormatBenchmark {
+
+    private static final TypeReference<List<Person>> PERSON_LIST = new TypeReference<>() {};
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    @Param({"100", "1000"})
+    int listSize;
+
+    private ObjectMapper mapper;
+    private List<Person> people;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws Exception {
+        //Same builder defaults Spring MVC uses for each converter
+        mapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        people = LongStream.rangeClosed(1, listSize)
+                .mapToObj(id -> {
+                    Person person = new Person(id, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", id + "@gmail.com");
+                    person.setVersion(0L);
+                    return person;
+                })
+                .toList();
+        payload = mapper.writeValueAsBytes(people);
+        System.out.printf("%n%s payload for %d people: %d bytes%n", format, listSize, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encodePersonList() throws Exception {
+        return mapper.writeValueAsBytes(people);
+    }
+
+    @Benchmark
+    public List<Person> decodePersonList() throws Exception {
+        return mapper.readValue(payload, PERSON_LIST);
+    }
+}
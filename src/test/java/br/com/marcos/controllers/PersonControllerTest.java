@@ -1,13 +1,32 @@
 package br.com.marcos.controllers;
+import br.com.marcos.config.MediaTypes;
+import br.com.marcos.exceptions.PreconditionFailedException;
 import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.exceptions.ServiceUnavailableException;
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.ImportSummary;
 import br.com.marcos.model.Person;
+import br.com.marcos.services.PersonAsyncServices;
+import br.com.marcos.services.PersonJsonCache;
 import br.com.marcos.services.PersonServices;import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -17,18 +36,34 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 
 import javax.management.relation.RelationServiceNotRegisteredException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 @WebMvcTest
+@Import(PersonJsonCache.class)
 public class PersonControllerTest {
 
     @Autowired
@@ -36,13 +71,19 @@ public class PersonControllerTest {
     @Autowired
     private ObjectMapper mapper;
 
+    @Autowired
+    private PersonJsonCache jsonCache;
+
     @MockBean
     private PersonServices services;
+    @MockBean
+    private PersonAsyncServices asyncServices;
 
     private Person person;
 
     @BeforeEach
     public void setup() {
+        jsonCache.invalidateAll();
         person = new Person("Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com");
     }
 
@@ -64,6 +105,259 @@ public class PersonControllerTest {
                 .andExpect(jsonPath("$.email", is(person.getEmail())));
     }
 
+    @DisplayName("JUnity test Given Person List when Create Batch then Return Per Item Results")
+    @Test
+    void testGivenPersonList_whenCreateBatch_thenReturnPerItemResults() throws Exception {
+        //Given / Arrange
+        given(services.createAll(anyList())).willReturn(List.of(
+                BatchItemResult.of(0, 1L, BatchItemResult.Status.CREATED),
+                new BatchItemResult(1, null, BatchItemResult.Status.CONFLICT, "Person already exist")));
+
+        //When / Act
+        ResultActions response = mockMvc.perform(post("/person/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(List.of(person, person))));
+        //Then / Assert
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("CONFLICT")));
+    }
+
+    @DisplayName("JUnity test Given Cbor Person List when Create Batch then Return Cbor Results")
+    @Test
+    void testGivenCborPersonList_whenCreateBatch_thenReturnCborResults() throws Exception {
+        //Given / Arrange
+        ObjectMapper cbor = new CBORMapper();
+        given(services.createAll(anyList())).willReturn(List.of(
+                BatchItemResult.of(0, 1L, BatchItemResult.Status.CREATED)));
+
+        //When / Act
+        ResultActions response = mockMvc.perform(post("/person/batch")
+                .contentType(MediaTypes.APPLICATION_CBOR_VALUE)
+                .accept(MediaTypes.APPLICATION_CBOR_VALUE)
+                .content(cbor.writeValueAsBytes(List.of(person))));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaTypes.APPLICATION_CBOR_VALUE));
+        JsonNode results = cbor.readTree(response.andReturn().getResponse().getContentAsByteArray());
+        assertEquals("CREATED", results.get(0).get("status").asText());
+    }
+
+    @DisplayName("JUnity test Given Smile Accept when findById then Return Smile Person")
+    @Test
+    void testGivenSmileAccept_whenFindById_thenReturnSmilePerson() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        given(services.findById(personId)).willReturn(person);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person/{id}", personId)
+                .accept(MediaTypes.APPLICATION_SMILE_VALUE));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaTypes.APPLICATION_SMILE_VALUE));
+        Person found = new SmileMapper().readValue(response.andReturn().getResponse().getContentAsByteArray(), Person.class);
+        assertEquals(person.getFirstName(), found.getFirstName());
+    }
+
+    @DisplayName("JUnity test Given Cbor Accept when findById then Return Cbor ETag Varying By Accept")
+    @Test
+    void testGivenCborAccept_whenFindById_thenReturnCborETagVaryingByAccept() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        person.setVersion(3L);
+        given(services.findById(personId)).willReturn(person);
+
+        //When / Act
+        ResultActions cbor = mockMvc.perform(get("/person/{id}", personId)
+                .accept(MediaTypes.APPLICATION_CBOR_VALUE));
+        ResultActions json = mockMvc.perform(get("/person/{id}", personId)
+                .accept(MediaType.APPLICATION_JSON));
+        //Then / Assert
+        cbor.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaTypes.APPLICATION_CBOR_VALUE))
+                .andExpect(header().string("ETag", "\"3-cbor\""))
+                .andExpect(header().string("Vary", "Accept"));
+        json.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().string("Vary", "Accept"));
+    }
+    @DisplayName("JUnity test Given Json ETag when findById As Smile then Return Smile Body")
+    @Test
+    void testGivenJsonETag_whenFindByIdAsSmile_thenReturnSmileBody() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        person.setVersion(3L);
+        given(services.findVersion(personId)).willReturn(3L);
+        given(services.findById(personId)).willReturn(person);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person/{id}", personId)
+                .accept(MediaTypes.APPLICATION_SMILE_VALUE)
+                .header("If-None-Match", "\"3\""));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaTypes.APPLICATION_SMILE_VALUE))
+                .andExpect(header().string("ETag", "\"3-smile\""))
+                .andExpect(header().string("Vary", "Accept"));
+    }
+    @DisplayName("JUnity test Given Cbor Accept when findAll Persons then Return Cbor Page ETag Varying By Accept")
+    @Test
+    void testGivenCborAccept_whenFindAllPersons_thenReturnCborPageETagVaryingByAccept() throws Exception {
+        //Given / Arrange
+        person.setId(1L);
+        given(services.findPage(isNull(), anyInt())).willReturn(new SliceImpl<>(List.of(person)));
+
+        //When / Act
+        String cborETag = mockMvc.perform(get("/person").accept(MediaTypes.APPLICATION_CBOR_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn().getResponse().getHeader("ETag");
+        String jsonETag = mockMvc.perform(get("/person").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn().getResponse().getHeader("ETag");
+        //Then / Assert
+        assertEquals(jsonETag.replace("\"", "") + "-cbor", cborETag.replace("\"", ""));
+    }
+    @DisplayName("JUnity test Given Current ETag when findById then Return Not Modified Varying By Accept")
+    @Test
+    void testGivenCurrentETag_whenFindById_thenReturnNotModifiedVaryingByAccept() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        given(services.findVersion(personId)).willReturn(3L);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person/{id}", personId)
+                .accept(MediaTypes.APPLICATION_CBOR_VALUE)
+                .header("If-None-Match", "\"3-cbor\""));
+        //Then / Assert
+        response.andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept"));
+        verify(services, never()).findById(personId);
+    }
+    @DisplayName("JUnity test Given Ndjson Body when Import then Return Summary")
+    @Test
+    void testGivenNdjsonBody_whenImport_thenReturnSummary() throws Exception {
+        //Given / Arrange
+        given(services.importAll(any())).willAnswer(invocation -> {
+            Iterator<Person> people = invocation.getArgument(0);
+            ImportSummary summary = new ImportSummary();
+            List<BatchItemResult> results = new ArrayList<>();
+            while (people.hasNext()) {
+                people.next();
+                results.add(BatchItemResult.of(results.size(), (long) results.size() + 1, BatchItemResult.Status.CREATED));
+            }
+            summary.add(0, results);
+            return summary;
+        });
+        String body = mapper.writeValueAsString(person) + "\n" + mapper.writeValueAsString(person) + "\n";
+
+        //When / Act
+        ResultActions response = mockMvc.perform(post("/person/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body));
+        //Then / Assert
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read", is(2)))
+                .andExpect(jsonPath("$.created", is(2)));
+    }
+
+    @DisplayName("JUnity test Given Json Array Body when Import then Return Summary")
+    @Test
+    void testGivenJsonArrayBody_whenImport_thenReturnSummary() throws Exception {
+        //Given / Arrange
+        List<String> emails = new ArrayList<>();
+        given(services.importAll(any())).willAnswer(invocation -> {
+            Iterator<Person> people = invocation.getArgument(0);
+            ImportSummary summary = new ImportSummary();
+            List<BatchItemResult> results = new ArrayList<>();
+            while (people.hasNext()) {
+                emails.add(people.next().getEmail());
+                results.add(BatchItemResult.of(results.size(), (long) results.size() + 1, BatchItemResult.Status.CREATED));
+            }
+            summary.add(0, results);
+            return summary;
+        });
+        Person other = new Person("Henrique", "Soares", "Uberlândia - MG - Brasil", "Male", "henrique@gmail.com");
+        String body = mapper.writeValueAsString(List.of(person, other));
+
+        //When / Act
+        ResultActions response = mockMvc.perform(post("/person/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+        //Then / Assert
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read", is(2)))
+                .andExpect(jsonPath("$.created", is(2)));
+        assertEquals(List.of(person.getEmail(), "henrique@gmail.com"), emails);
+    }
+
+    @DisplayName("JUnity test Given Empty Json Array when Import then Return Empty Summary")
+    @Test
+    void testGivenEmptyJsonArray_whenImport_thenReturnEmptySummary() throws Exception {
+        //Given / Arrange
+        given(services.importAll(any())).willAnswer(invocation -> {
+            Iterator<Person> people = invocation.getArgument(0);
+            assertFalse(people.hasNext());
+            return new ImportSummary();
+        });
+
+        //When / Act
+        ResultActions response = mockMvc.perform(post("/person/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.read", is(0)));
+    }
+
+    @DisplayName("JUnity test Given Malformed Ndjson when Import then Return Bad Request")
+    @Test
+    void testGivenMalformedNdjson_whenImport_thenReturnBadRequest() throws Exception {
+        //Given / Arrange
+        given(services.importAll(any())).willAnswer(invocation -> {
+            Iterator<Person> people = invocation.getArgument(0);
+            while (people.hasNext()) {
+                people.next();
+            }
+            return new ImportSummary();
+        });
+
+        //When / Act
+        ResultActions response = mockMvc.perform(post("/person/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(mapper.writeValueAsString(person) + "\n{\"firstName\": "));
+        //Then / Assert
+        response.andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("JUnity test Given Changed Fields when patch Person then Return Patched Person With ETag")
+    @Test
+    void testGivenChangedFields_whenPatchPerson_thenReturnPatchedPersonWithETag() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        person.setAddress("São Paulo - SP - Brasil");
+        person.setVersion(5L);
+        given(services.patch(eq(personId), eq(Map.of("address", "São Paulo - SP - Brasil")), eq(4L))).willReturn(person);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(patch("/person/{id}", personId)
+                .contentType("application/merge-patch+json")
+                .header("If-Match", "\"4\"")
+                .content("{\"address\": \"São Paulo - SP - Brasil\"}"));
+        //Then / Assert
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""))
+                .andExpect(jsonPath("$.address", is("São Paulo - SP - Brasil")));
+    }
+
     @DisplayName("JUnity test Given List Persons when findAll Persons then Return Person Lists")
     @Test
     void testGivenListOfPersons_whenFindAllPersons_thenReturnPersonsList() throws Exception {
@@ -78,7 +372,8 @@ public class PersonControllerTest {
                 "Male",
                 "andrep@hotmail.com"));
 
-        given(services.findAll()).willReturn(persons);
+        given(services.findPage(isNull(), anyInt()))
+                .willReturn(new SliceImpl<>(persons, PageRequest.ofSize(100), false));
 
         //When / Act
         ResultActions response = mockMvc.perform(get("/person"));
@@ -86,7 +381,50 @@ public class PersonControllerTest {
         response
                 .andExpect(status().isOk())
                 .andDo(print())
-                .andExpect(jsonPath("$.size()", is(persons.size())));
+                .andExpect(jsonPath("$.size()", is(persons.size())))
+                .andExpect(header().doesNotExist(PersonController.NEXT_CURSOR_HEADER));
+    }
+
+    @DisplayName("JUnity test Given Cursor and Limit when findAll Persons then Return Page With Next Cursor")
+    @Test
+    void testGivenCursorAndLimit_whenFindAllPersons_thenReturnPageWithNextCursor() throws Exception {
+
+        //Given / Arrange
+        person.setId(42L);
+        given(services.findPage(eq(41L), eq(1)))
+                .willReturn(new SliceImpl<>(List.of(person), PageRequest.ofSize(1), true));
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person")
+                .param("after", "41")
+                .param("limit", "1"));
+        //Then / Assert
+        response
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(header().string(PersonController.NEXT_CURSOR_HEADER, "42"));
+    }
+
+    @DisplayName("JUnity test Given Filters when Search then Return Matching Persons")
+    @Test
+    void testGivenFilters_whenSearch_thenReturnMatchingPersons() throws Exception {
+        //Given / Arrange
+        person.setId(5L);
+        given(services.search(eq("Marcos"), eq("Dutra"), isNull(), isNull(), eq("Uber"), isNull(), eq(10)))
+                .willReturn(new SliceImpl<>(List.of(person), PageRequest.ofSize(10), true));
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person/search")
+                .param("firstName", "Marcos")
+                .param("lastName", "Dutra")
+                .param("address", "Uber")
+                .param("limit", "10"));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(header().string(PersonController.NEXT_CURSOR_HEADER, "5"));
     }
 
     @DisplayName("JUnity test Given Person Id when findById then Return Person Object")
@@ -105,6 +443,106 @@ public class PersonControllerTest {
                 .andExpect(jsonPath("$.lastName", is(person.getLastName())))
                 .andExpect(jsonPath("$.email", is(person.getEmail())));
     }
+    @DisplayName("JUnity test Given Cached Json when findById then Return Bytes Without Loading")
+    @Test
+    void testGivenCachedJson_whenFindById_thenReturnBytesWithoutLoading() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        person.setId(personId);
+        person.setVersion(2L);
+        jsonCache.get(person);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person/{id}", personId));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.firstName", is(person.getFirstName())));
+        verify(services, never()).findById(personId);
+    }
+    @DisplayName("JUnity test Given Email when findByEmail then Return Person Object")
+    @Test
+    void testGivenEmail_whenFindByEmail_thenReturnPersonObject() throws Exception {
+        //Given / Arrange
+        given(services.findByEmail(person.getEmail())).willReturn(person);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person").param("email", person.getEmail()));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.firstName", is(person.getFirstName())))
+                .andExpect(jsonPath("$.email", is(person.getEmail())));
+    }
+    @DisplayName("JUnity test Given Current ETag when findById then Return Not Modified Without Loading")
+    @Test
+    void testGivenCurrentETag_whenFindById_thenReturnNotModifiedWithoutLoading() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        given(services.findVersion(personId)).willReturn(3L);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person/{id}", personId)
+                .header("If-None-Match", "\"3\""));
+        //Then / Assert
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string("ETag", "\"3\""));
+        verify(services, never()).findById(personId);
+    }
+    @DisplayName("JUnity test Given Stale ETag when findById then Return Person With Current ETag")
+    @Test
+    void testGivenStaleETag_whenFindById_thenReturnPersonWithCurrentETag() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        person.setVersion(4L);
+        given(services.findVersion(personId)).willReturn(4L);
+        given(services.findById(personId)).willReturn(person);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person/{id}", personId)
+                .header("If-None-Match", "\"3\""));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.firstName", is(person.getFirstName())));
+    }
+    @DisplayName("JUnity test Given Stale If-Match when Delete then Return Precondition Failed")
+    @Test
+    void testGivenStaleIfMatch_whenDelete_thenReturnPreconditionFailed() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        willThrow(new PreconditionFailedException("Version 3 is stale, current is 4"))
+                .given(services).delete(personId, 3L);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(delete("/person/{id}", personId)
+                .header("If-Match", "\"3\""));
+        //Then / Assert
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+    }
+    @DisplayName("JUnity test Given Fields when findById then Return Only Requested Fields")
+    @Test
+    void testGivenFields_whenFindById_thenReturnOnlyRequestedFields() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", personId);
+        row.put("firstName", person.getFirstName());
+        given(services.findFieldsById(personId, "firstName")).willReturn(row);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person/{id}", personId).param("fields", "firstName"));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.firstName", is(person.getFirstName())))
+                .andExpect(jsonPath("$.email").doesNotExist());
+    }
     @DisplayName("JUnity test Given invalid Person Id when findById then Return Not Found")
     @Test
     void testGivenInvalidPersonId_whenFindById_thenReturnNotFound() throws Exception {
@@ -148,9 +586,8 @@ public class PersonControllerTest {
     void testGivenUnexistentPerson_whenUpdate_thenReturnNotFound() throws Exception {
         //Given / Arrange
         long personId = 1L;
-        given(services.findById(personId)).willThrow(ResourceNotFoundException.class);
         given(services.update(any(Person.class)))
-                .willAnswer((invocation) -> invocation.getArgument(1));
+                .willThrow(new ResourceNotFoundException("No records found for this id"));
 
         //When / Act
         ResultActions response = mockMvc.perform(put("/person")
@@ -160,6 +597,53 @@ public class PersonControllerTest {
         response.andExpect(status().isNotFound())
                 .andDo(print());
     }
+    @DisplayName("JUnity test Given Committed Update when Update then Return Persisted Person With ETag")
+    @Test
+    void testGivenCommittedUpdate_whenUpdate_thenReturnPersistedPersonWithETag() throws Exception {
+        //Given / Arrange
+        person.setId(1L);
+        Person persisted = new Person(person);
+        persisted.setVersion(5L);
+        given(services.update(any(Person.class))).willReturn(persisted);
+
+        //When / Act
+        ResultActions response = mockMvc.perform(put("/person")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(person)));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""))
+                .andExpect(jsonPath("$.version", is(5)));
+    }
+    @DisplayName("JUnity test Given Write Behind Ack Timeout when Update then Return Service Unavailable")
+    @Test
+    void testGivenWriteBehindAckTimeout_whenUpdate_thenReturnServiceUnavailable() throws Exception {
+        //Given / Arrange
+        given(services.update(any(Person.class)))
+                .willThrow(new ServiceUnavailableException("Update of person 1 not committed within 5000ms"));
+
+        //When / Act
+        ResultActions response = mockMvc.perform(put("/person")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(person)));
+        //Then / Assert
+        response.andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+    @DisplayName("JUnity test Given Failed Write Behind Flush when Update then Return Internal Server Error")
+    @Test
+    void testGivenFailedWriteBehindFlush_whenUpdate_thenReturnInternalServerError() throws Exception {
+        //Given / Arrange
+        given(services.update(any(Person.class)))
+                .willThrow(new IllegalStateException("could not execute batch"));
+
+        //When / Act
+        ResultActions response = mockMvc.perform(put("/person")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(person)));
+        //Then / Assert
+        response.andExpect(status().isInternalServerError());
+    }
     @DisplayName("JUnity test Given Person id when Delete then Return No Content")
     @Test
     void testGivenPersonId_whenDelete_thenReturnNoContent() throws Exception {
@@ -173,4 +657,113 @@ public class PersonControllerTest {
         response.andExpect(status().isNoContent())
                 .andDo(print());
     }
+    @DisplayName("JUnit test Given Persons when Export As Json then Stream One Array")
+    @Test
+    void testGivenPersons_whenExportAsJson_thenStreamOneArray() throws Exception {
+        //Given / Arrange
+        givenStreamedPersons();
+
+        //When / Act
+        MvcResult started = mockMvc.perform(get("/person/export").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].firstName", is("Marcos")))
+                .andExpect(jsonPath("$[1].firstName", is("André")));
+    }
+    @DisplayName("JUnit test Given Persons when Export As Ndjson then Stream One Object Per Line")
+    @Test
+    void testGivenPersons_whenExportAsNdjson_thenStreamOneObjectPerLine() throws Exception {
+        //Given / Arrange
+        givenStreamedPersons();
+
+        //When / Act
+        MvcResult started = mockMvc.perform(get("/person/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+        String[] lines = response.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Marcos", mapper.readValue(lines[0], Person.class).getFirstName());
+        assertEquals("André", mapper.readValue(lines[1], Person.class).getFirstName());
+    }
+    private void givenStreamedPersons() {
+        given(services.streamAll(any())).willAnswer(invocation -> {
+            Consumer<Person> consumer = invocation.getArgument(0);
+            consumer.accept(new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com"));
+            consumer.accept(new Person(2L, "André", "Pereira", "São Paulo - SP - Brasil", "Male", "andrep@hotmail.com"));
+            return 2L;
+        });
+    }
+    @DisplayName("JUnit test Given Last Event Id when Subscribe To Changes then Resume After It")
+    @Test
+    void testGivenLastEventId_whenSubscribeToChanges_thenResumeAfterIt() throws Exception {
+        //Given / Arrange
+        given(services.subscribeToChanges(42L)).willReturn(new SseEmitter());
+
+        //When / Act
+        ResultActions response = mockMvc.perform(get("/person/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "42"));
+        //Then / Assert
+        response.andExpect(status().isOk());
+        verify(services).subscribeToChanges(42L);
+    }
+    @DisplayName("JUnit test Given Person Id when Find By Id Async then Return Person After Async Dispatch")
+    @Test
+    void testGivenPersonId_whenFindByIdAsync_thenReturnPersonAfterAsyncDispatch() throws Exception {
+        //Given / Arrange
+        person.setVersion(3L);
+        given(asyncServices.findById(1L)).willReturn(CompletableFuture.completedFuture(person));
+
+        //When / Act
+        MvcResult started = mockMvc.perform(get("/person/async/{id}", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+        //Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.firstName", is(person.getFirstName())));
+    }
+    @DisplayName("JUnit test Given Unexistent Person when Find By Id Async then Return Not Found")
+    @Test
+    void testGivenUnexistentPerson_whenFindByIdAsync_thenReturnNotFound() throws Exception {
+        //Given / Arrange
+        given(asyncServices.findById(1L)).willReturn(CompletableFuture.failedFuture(
+                new ResourceNotFoundException("No records found for this id")));
+
+        //When / Act
+        MvcResult started = mockMvc.perform(get("/person/async/{id}", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+        //Then / Assert
+        response.andExpect(status().isNotFound());
+    }
+    @DisplayName("JUnit test Given Full DB Executor when Create Async then Return Service Unavailable")
+    @Test
+    void testGivenFullDbExecutor_whenCreateAsync_thenReturnServiceUnavailable() throws Exception {
+        //Given / Arrange
+        given(asyncServices.create(any(Person.class))).willReturn(CompletableFuture.failedFuture(
+                new RejectedExecutionException("queue full")));
+
+        //When / Act
+        MvcResult started = mockMvc.perform(post("/person/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(person)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+        //Then / Assert
+        response.andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
 }
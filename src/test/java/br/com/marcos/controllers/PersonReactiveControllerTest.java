@@ -0,0 +1,80 @@
+package br.com.marcos.controllers;
+
+import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.model.Person;
+import br.com.marcos.services.PersonReactiveServices;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ActiveProfiles("reactive")
+@WebFluxTest(controllers = PersonReactiveController.class)
+public class PersonReactiveControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private PersonReactiveServices services;
+
+    private Person person;
+
+    @BeforeEach
+    public void setup() {
+        person = new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com");
+    }
+
+    @DisplayName("JUnity test Given Person Id when findById then Return Person Object")
+    @Test
+    void testGivenPersonId_whenFindById_thenReturnPersonObject() {
+        //Given / Arrange
+        given(services.findById(1L)).willReturn(Mono.just(person));
+
+        //When / Act / Then / Assert
+        webTestClient.get().uri("/person/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo(person.getFirstName())
+                .jsonPath("$.email").isEqualTo(person.getEmail());
+    }
+    @DisplayName("JUnity test Given invalid Person Id when findById then Return Not Found")
+    @Test
+    void testGivenInvalidPersonId_whenFindById_thenReturnNotFound() {
+        //Given / Arrange
+        given(services.findById(1L)).willReturn(Mono.error(new ResourceNotFoundException("No records found for this id")));
+
+        //When / Act / Then / Assert
+        webTestClient.get().uri("/person/{id}", 1L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+    @DisplayName("JUnity test Given More Rows Than Limit when findAll then Return Page With Next Cursor")
+    @Test
+    void testGivenMoreRowsThanLimit_whenFindAll_thenReturnPageWithNextCursor() {
+        //Given / Arrange
+        given(services.findPage(eq(0L), eq(1)))
+                .willReturn(Mono.just(new SliceImpl<>(List.of(person), PageRequest.ofSize(1), true)));
+
+        //When / Act / Then / Assert
+        webTestClient.get().uri("/person?after=0&limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(PersonController.NEXT_CURSOR_HEADER, "1")
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(1);
+    }
+}
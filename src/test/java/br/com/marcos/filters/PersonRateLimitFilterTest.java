@@ -0,0 +1,177 @@
+package br.com.marcos.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class PersonRateLimitFilterTest {
+
+    private PersonRateLimitFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        filter = new PersonRateLimitFilter();
+        filter.enabled = true;
+        filter.requestsPerSecond = 1;
+        filter.burst = 2;
+        filter.maxInFlight = 10;
+        filter.maxPoolWaiters = 10;
+        filter.shedRetryAfterSeconds = 1;
+        filter.mapper = new ObjectMapper();
+        filter.registry = new SimpleMeterRegistry();
+        //No DataSource: only the in-flight threshold applies
+        filter.dataSource = mock(ObjectProvider.class);
+        filter.init();
+    }
+
+    @DisplayName("JUnit test Given Burst Used Up when Same Client Calls Same Endpoint then Return Too Many Requests")
+    @Test
+    void testGivenBurstUsedUp_whenSameClientCallsSameEndpoint_thenReturnTooManyRequests() throws Exception {
+        //Given / Arrange
+        assertEquals(200, call("GET", "/person/1", "10.0.0.1").getStatus());
+        assertEquals(200, call("GET", "/person/2", "10.0.0.1").getStatus());
+
+        //When / Act
+        MockHttpServletResponse response = call("GET", "/person/3", "10.0.0.1");
+
+        //Then / Assert
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("Rate limit"));
+        assertEquals(1.0, filter.registry.get("person.ratelimit.rejected").tag("reason", "rate").counter().count());
+    }
+
+    @DisplayName("JUnit test Given Burst Used Up when Other Client Or Endpoint then Still Admitted")
+    @Test
+    void testGivenBurstUsedUp_whenOtherClientOrEndpoint_thenStillAdmitted() throws Exception {
+        //Given / Arrange
+        call("GET", "/person", "10.0.0.1");
+        call("GET", "/person", "10.0.0.1");
+
+        //When / Act
+        MockHttpServletResponse otherClient = call("GET", "/person", "10.0.0.2");
+        MockHttpServletResponse otherEndpoint = call("GET", "/person/1", "10.0.0.1");
+
+        //Then / Assert
+        assertEquals(200, otherClient.getStatus());
+        assertEquals(200, otherEndpoint.getStatus());
+    }
+
+    @DisplayName("JUnit test Given Too Many Requests In Flight when Call then Return Service Unavailable")
+    @Test
+    void testGivenTooManyRequestsInFlight_whenCall_thenReturnServiceUnavailable() throws Exception {
+        //Given / Arrange
+        filter.maxInFlight = 0;
+
+        //When / Act
+        MockHttpServletResponse response = call("GET", "/person", "10.0.0.1");
+
+        //Then / Assert
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals(0, filter.inFlight());
+    }
+
+    @DisplayName("JUnit test Given Path Outside Person when Call then Not Limited")
+    @Test
+    void testGivenPathOutsidePerson_whenCall_thenNotLimited() throws Exception {
+        //Given / Arrange
+        filter.maxInFlight = 0;
+
+        //When / Act
+        MockHttpServletResponse response = call("GET", "/actuator/health", "10.0.0.1");
+
+        //Then / Assert
+        assertEquals(200, response.getStatus());
+    }
+
+    @DisplayName("JUnit test Given Ids In The Path when Endpoint then Fold Them Into A Template")
+    @Test
+    void testGivenIdsInThePath_whenEndpoint_thenFoldThemIntoATemplate() {
+        assertEquals("/person/{id}", PersonRateLimitFilter.endpoint(new MockHttpServletRequest("GET", "/person/42")));
+        assertEquals("/person/batch", PersonRateLimitFilter.endpoint(new MockHttpServletRequest("PUT", "/person/batch")));
+    }
+
+    @DisplayName("JUnit test Given Async Request when Dispatch Returns then Stay In Flight Until Completed")
+    @Test
+    void testGivenAsyncRequest_whenDispatchReturns_thenStayInFlightUntilCompleted() throws Exception {
+        //Given / Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/person/async/1");
+        request.setAsyncSupported(true);
+
+        //When / Act
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        //Then / Assert
+        assertEquals(1, filter.inFlight());
+        request.getAsyncContext().complete();
+        assertEquals(0, filter.inFlight());
+    }
+
+    @DisplayName("JUnit test Given Event Stream when Dispatch Returns then Leave In Flight Count")
+    @Test
+    void testGivenEventStream_whenDispatchReturns_thenLeaveInFlightCount() throws Exception {
+        //Given / Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/person/changes");
+        request.setAsyncSupported(true);
+
+        //When / Act
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            res.setContentType("text/event-stream");
+            req.startAsync();
+        });
+
+        //Then / Assert
+        assertEquals(0, filter.inFlight());
+    }
+
+    @DisplayName("JUnit test Given Spoofed Forwarded For when Client then Use Right Most Untrusted Hop")
+    @Test
+    void testGivenSpoofedForwardedFor_whenClient_thenUseRightMostUntrustedHop() {
+        //Given / Arrange
+        filter.clientHeader = "X-Forwarded-For";
+        filter.trustedProxies = "10\\.0\\..*";
+        filter.init();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/person");
+        request.setRemoteAddr("10.0.0.5");
+        request.addHeader("X-Forwarded-For", "1.1.1.1, 203.0.113.7, 10.0.0.9");
+        MockHttpServletRequest direct = new MockHttpServletRequest("GET", "/person");
+        direct.setRemoteAddr("198.51.100.4");
+        direct.addHeader("X-Forwarded-For", "1.1.1.1");
+
+        //When / Act / Then / Assert
+        assertEquals("203.0.113.7", filter.client(request));
+        assertEquals("198.51.100.4", filter.client(direct));
+    }
+
+    @DisplayName("JUnit test Given No Trusted Proxies when Client then Use Hop Added By The Peer")
+    @Test
+    void testGivenNoTrustedProxies_whenClient_thenUseHopAddedByThePeer() {
+        //Given / Arrange
+        filter.clientHeader = "X-Forwarded-For";
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/person");
+        request.setRemoteAddr("10.0.0.5");
+        request.addHeader("X-Forwarded-For", "1.1.1.1, 203.0.113.7");
+
+        //When / Act / Then / Assert
+        assertEquals("203.0.113.7", filter.client(request));
+    }
+
+    private MockHttpServletResponse call(String method, String uri, String client) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.marcos.integrationtests.cache;
+
+import br.com.marcos.config.HibernateCacheEndpoint;
+import br.com.marcos.integrationtests.containers.AbstractIntegrationTest;
+import br.com.marcos.model.Person;
+import br.com.marcos.respositories.PersonRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Every repository call runs in its own transaction and session, so reads after the first come from the second-level cache
+@SpringBootTest
+class PersonSecondLevelCacheIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HibernateCacheEndpoint endpoint;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @DisplayName("Integration test Given Saved Person when findById Twice then Second Read Is A Region Hit")
+    @Test
+    void integrationTestGivenSavedPerson_whenFindByIdTwice_thenSecondReadIsARegionHit() {
+        //Given / Arrange
+        Person saved = repository.save(person("l2-find@cache.com"));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        //When / Act
+        repository.findById(saved.getId());
+        repository.findById(saved.getId());
+
+        //Then / Assert
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Person.CACHE_REGION);
+        assertEquals(1, region.getMissCount());
+        assertEquals(1, region.getHitCount());
+        assertEquals(0.5, endpoint.stats().regions().get(Person.CACHE_REGION).hitRatio());
+    }
+
+    @DisplayName("Integration test Given Cached findByEmail when Person Is Updated then Query Cache Returns The New Row")
+    @Test
+    void integrationTestGivenCachedFindByEmail_whenPersonIsUpdated_thenQueryCacheReturnsTheNewRow() {
+        //Given / Arrange
+        repository.save(person("l2-email@cache.com"));
+        statistics.clear();
+        Person cached = repository.findByEmail("l2-email@cache.com").orElseThrow();
+        repository.findByEmail("l2-email@cache.com");
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        //When / Act
+        cached.setFirstName("Henrique");
+        repository.save(cached);
+        Person reloaded = repository.findByEmail("l2-email@cache.com").orElseThrow();
+
+        //Then / Assert
+        assertEquals("Henrique", reloaded.getFirstName());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @DisplayName("Integration test Given Cached Person when Bulk Delete then findById Returns Empty")
+    @Test
+    void integrationTestGivenCachedPerson_whenBulkDelete_thenFindByIdReturnsEmpty() {
+        //Given / Arrange
+        Person saved = repository.save(person("l2-delete@cache.com"));
+        assertTrue(repository.findById(saved.getId()).isPresent());
+
+        //When / Act
+        repository.deleteByIdReturningCount(saved.getId());
+
+        //Then / Assert
+        assertTrue(repository.findById(saved.getId()).isEmpty());
+        assertTrue(repository.findByEmail("l2-delete@cache.com").isEmpty());
+    }
+
+    @DisplayName("Integration test Given Recorded Hits when Reset then Counters Start Over")
+    @Test
+    void integrationTestGivenRecordedHits_whenReset_thenCountersStartOver() {
+        //Given / Arrange
+        Person saved = repository.save(person("l2-reset@cache.com"));
+        repository.findById(saved.getId());
+
+        //When / Act
+        endpoint.reset();
+
+        //Then / Assert
+        HibernateCacheEndpoint.CacheStats stats = endpoint.stats();
+        assertTrue(stats.statisticsEnabled());
+        assertEquals(0, stats.secondLevel().hits());
+        assertEquals(0.0, stats.secondLevel().hitRatio());
+    }
+
+    private static Person person(String email) {
+        return new Person("Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", email);
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.marcos.integrationtests.cache;
+
+import br.com.marcos.config.CacheConfig;
+import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.integrationtests.containers.AbstractIntegrationTest;
+import br.com.marcos.model.Person;
+import br.com.marcos.respositories.PersonRepository;
+import br.com.marcos.services.PersonServices;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+//The Spring cache in front of PersonServices; the snapshot is off so every miss really reaches the repository
+@SpringBootTest(properties = "app.snapshot.enabled=false")
+class PersonServicesCacheIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @SpyBean
+    private PersonRepository repository;
+
+    private Cache cache;
+
+    @BeforeEach
+    public void setup() {
+        cache = cacheManager.getCache(CacheConfig.PERSON_CACHE);
+        cache.clear();
+    }
+
+    @DisplayName("Integration test Given Person Not Cached when findById Twice then Repository Is Called Once")
+    @Test
+    void integrationTestGivenPersonNotCached_whenFindByIdTwice_thenRepositoryIsCalledOnce() {
+        //Given / Arrange
+        Person saved = services.create(person("spring-cache-find@cache.com"));
+        cache.clear();
+        clearInvocations(repository);
+
+        //When / Act
+        Person first = services.findById(saved.getId());
+        Person second = services.findById(saved.getId());
+
+        //Then / Assert
+        verify(repository, times(1)).findById(saved.getId());
+        assertEquals(first.getEmail(), second.getEmail());
+    }
+
+    @DisplayName("Integration test Given Cached Person when Delete then Entry Is Evicted")
+    @Test
+    void integrationTestGivenCachedPerson_whenDelete_thenEntryIsEvicted() {
+        //Given / Arrange
+        Person saved = services.create(person("spring-cache-delete@cache.com"));
+        services.findById(saved.getId());
+        assertNotNull(cache.get(saved.getId()));
+
+        //When / Act
+        services.delete(saved.getId(), null);
+
+        //Then / Assert
+        assertNull(cache.get(saved.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> services.findById(saved.getId()));
+    }
+
+    @DisplayName("Integration test Given Cached Person when Update then Entry Holds The Updated Person")
+    @Test
+    void integrationTestGivenCachedPerson_whenUpdate_thenEntryHoldsTheUpdatedPerson() {
+        //Given / Arrange
+        Person saved = services.create(person("spring-cache-update@cache.com"));
+        services.findById(saved.getId());
+        Person changes = new Person(saved);
+        changes.setFirstName("Henrique");
+
+        //When / Act
+        Person updated = services.update(changes);
+
+        //Then / Assert
+        Person cached = cache.get(saved.getId(), Person.class);
+        assertNotNull(cached);
+        assertEquals("Henrique", cached.getFirstName());
+        assertEquals(updated.getVersion(), cached.getVersion());
+        clearInvocations(repository);
+        assertEquals("Henrique", services.findById(saved.getId()).getFirstName());
+        verify(repository, never()).findById(saved.getId());
+    }
+
+    private static Person person(String email) {
+        return new Person("Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", email);
+    }
+}
@@ -0,0 +1,144 @@
+package br.com.marcos.integrationtests.services;
+
+import br.com.marcos.exceptions.PreconditionFailedException;
+import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.integrationtests.containers.AbstractIntegrationTest;
+import br.com.marcos.model.Person;
+import br.com.marcos.services.PersonServices;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Writes through PersonServices against Postgres, so the UPDATEs really flush against the constraints
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class PersonServicesWriteIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DisplayName("Integration test Given Email Taken By Another Person when Update then Throws ResourceNotFoundException")
+    @Test
+    void integrationTestGivenEmailTakenByAnotherPerson_whenUpdate_thenThrowsResourceNotFoundException() {
+        //Given / Arrange
+        services.create(person("write-update-taken@write.com"));
+        Person saved = services.create(person("write-update-own@write.com"));
+        Person changes = new Person(saved);
+        changes.setEmail("write-update-taken@write.com");
+
+        //When / Act
+        assertThrows(ResourceNotFoundException.class, () -> services.update(changes));
+
+        //Then / Assert
+        assertEquals("write-update-own@write.com", services.findById(saved.getId()).getEmail());
+    }
+
+    @DisplayName("Integration test Given Email Taken By Another Person when Patch then Throws ResourceNotFoundException")
+    @Test
+    void integrationTestGivenEmailTakenByAnotherPerson_whenPatch_thenThrowsResourceNotFoundException() {
+        //Given / Arrange
+        services.create(person("write-patch-taken@write.com"));
+        Person saved = services.create(person("write-patch-own@write.com"));
+
+        //When / Act
+        assertThrows(ResourceNotFoundException.class,
+                () -> services.patch(saved.getId(), Map.of("email", "write-patch-taken@write.com"), null));
+
+        //Then / Assert
+        assertEquals("write-patch-own@write.com", services.findById(saved.getId()).getEmail());
+    }
+
+    @DisplayName("Integration test Given Concurrent Commit when Patch With Version then Throws PreconditionFailedException")
+    @Test
+    void integrationTestGivenConcurrentCommit_whenPatchWithVersion_thenThrowsPreconditionFailedException() throws Exception {
+        //Given / Arrange
+        Person saved = services.create(person("write-race-conditional@write.com"));
+
+        //When / Act
+        ExecutionException e = assertThrows(ExecutionException.class, () -> raceAgainstConcurrentCommit(saved.getId(),
+                () -> services.patch(saved.getId(), Map.of("lastName", "Soares"), saved.getVersion())));
+
+        //Then / Assert
+        assertInstanceOf(PreconditionFailedException.class, e.getCause());
+        Person current = services.findById(saved.getId());
+        assertEquals("Henrique", current.getFirstName());
+        assertEquals("Dutra", current.getLastName());
+    }
+
+    @DisplayName("Integration test Given Concurrent Commit when Update Without Version then Last Write Wins")
+    @Test
+    void integrationTestGivenConcurrentCommit_whenUpdateWithoutVersion_thenLastWriteWins() throws Exception {
+        //Given / Arrange
+        Person saved = services.create(person("write-race-unconditional@write.com"));
+        Person changes = new Person(saved);
+        changes.setVersion(null);
+        changes.setLastName("Soares");
+
+        //When / Act
+        Person updated = raceAgainstConcurrentCommit(saved.getId(), () -> services.update(changes));
+
+        //Then / Assert
+        assertEquals("Marcos", updated.getFirstName());
+        assertEquals("Soares", updated.getLastName());
+        assertEquals(saved.getVersion() + 2, updated.getVersion());
+    }
+
+    //Another thread patches the first name and holds its transaction open; the write under test reads the
+    //committed row, blocks on the row lock at its UPDATE, and only then is the other transaction committed
+    private <T> T raceAgainstConcurrentCommit(Long id, Callable<T> write) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch locked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Future<?> winner = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                services.patch(id, Map.of("firstName", "Henrique"), null);
+                locked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+            Future<T> loser = executor.submit(write);
+            awaitBlockedOnRowLock();
+            release.countDown();
+            winner.get(10, TimeUnit.SECONDS);
+            return loser.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitBlockedOnRowLock() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("select count(*) from pg_stat_activity where wait_event_type = 'Lock'"
+                + " and datname = current_database()", Integer.class) == 0) {
+            assertTrue(System.nanoTime() < deadline, "The write never blocked on the row lock");
+            Thread.sleep(10);
+        }
+    }
+
+    private static Person person(String email) {
+        return new Person("Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", email);
+    }
+}
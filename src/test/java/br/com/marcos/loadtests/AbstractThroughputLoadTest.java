@@ -0,0 +1,87 @@
+package br.com.marcos.loadtests;
+
+import br.com.marcos.integrationtests.containers.AbstractIntegrationTest;
+import br.com.marcos.model.Person;
+import br.com.marcos.respositories.PersonRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Run with mvn test -Pload-test, both subclasses log their req/s so the two thread modes can be compared
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=50")
+abstract class AbstractThroughputLoadTest extends AbstractIntegrationTest {
+
+    private static final int PEOPLE = 1_000;
+    private static final int REQUESTS = 20_000;
+    private static final int CONCURRENCY = 1_000;
+
+    private Logger logger = Logger.getLogger(getClass().getName());
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PersonRepository repository;
+
+    abstract String mode();
+
+    @DisplayName("Load Test when Many Concurrent Clients Page Through People then Report Throughput")
+    @Test
+    void loadTest_whenManyConcurrentClientsPageThroughPeople_thenReportThroughput() throws Exception {
+        List<Person> people = new ArrayList<>(PEOPLE);
+        for (int i = 0; i < PEOPLE; i++) {
+            people.add(new Person("Load", "Test " + i, "Uberlândia - MG - Brasil", "Male",
+                    mode() + "-" + i + "@loadtest.com"));
+        }
+        repository.saveAll(people);
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                URI uri = URI.create("http://localhost:" + port + "/person?limit=20&after=" + (i % PEOPLE));
+                executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        var response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) failures.incrementAndGet();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        logger.info(String.format("%s threads: %d requests in %.2fs = %.0f req/s",
+                mode(), REQUESTS, seconds, REQUESTS / seconds));
+        assertEquals(0, failures.get());
+    }
+}
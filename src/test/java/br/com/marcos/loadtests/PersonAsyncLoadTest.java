@@ -0,0 +1,110 @@
+package br.com.marcos.loadtests;
+
+import br.com.marcos.integrationtests.containers.AbstractIntegrationTest;
+import br.com.marcos.model.Person;
+import br.com.marcos.respositories.PersonRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Pageable;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+//Run with mvn test -Pload-test; compares GET /person with GET /person/async on platform threads while every page query takes 50ms more
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "server.tomcat.threads.max=50",
+                "spring.threads.virtual.enabled=false",
+                "app.single-flight.enabled=false"
+        })
+class PersonAsyncLoadTest extends AbstractIntegrationTest {
+
+    private static final int PEOPLE = 1_000;
+    private static final int REQUESTS = 4_000;
+    private static final int CONCURRENCY = 200;
+    private static final long DB_DELAY_MS = 50;
+
+    private Logger logger = Logger.getLogger(getClass().getName());
+
+    @LocalServerPort
+    private int port;
+
+    @SpyBean
+    private PersonRepository repository;
+
+    @DisplayName("Load Test when Pages Are Read From A Slow Database then Report Sync And Async Throughput And Latency")
+    @Test
+    void loadTest_whenPagesAreReadFromASlowDatabase_thenReportSyncAndAsyncThroughputAndLatency() throws Exception {
+        List<Person> people = new ArrayList<>(PEOPLE);
+        for (int i = 0; i < PEOPLE; i++) {
+            people.add(new Person("Load", "Test " + i, "Uberlândia - MG - Brasil", "Male",
+                    "async-" + i + "@loadtest.com"));
+        }
+        repository.saveAll(people);
+        doAnswer(invocation -> {
+            Thread.sleep(DB_DELAY_MS);
+            return invocation.callRealMethod();
+        }).when(repository).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        run(client, "/person");
+        run(client, "/person/async");
+    }
+
+    private void run(HttpClient client, String path) throws Exception {
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger failures = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+
+        long start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                int slot = i;
+                URI uri = URI.create("http://localhost:" + port + path + "?limit=20&after=" + (i % PEOPLE));
+                executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        long sent = System.nanoTime();
+                        var response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        latencies[slot] = System.nanoTime() - sent;
+                        if (response.statusCode() != 200) failures.incrementAndGet();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        Arrays.sort(latencies);
+
+        logger.info(String.format("%s: %.0f req/s, p50=%.2fms p99=%.2fms max=%.2fms",
+                path, REQUESTS / seconds, latencies[REQUESTS / 2] / 1_000_000.0,
+                latencies[REQUESTS * 99 / 100] / 1_000_000.0, latencies[REQUESTS - 1] / 1_000_000.0));
+        assertEquals(0, failures.get());
+    }
+}
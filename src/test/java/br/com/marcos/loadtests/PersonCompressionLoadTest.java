@@ -0,0 +1,117 @@
+package br.com.marcos.loadtests;
+
+import br.com.marcos.integrationtests.containers.AbstractIntegrationTest;
+import br.com.marcos.model.Person;
+import br.com.marcos.respositories.PersonRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Run with mvn test -Pload-test; logs one line per page size, protocol and encoding to choose server.compression.min-response-size
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "server.compression.enabled=true",
+                //Compress everything here, the table shows from which size on it pays off
+                "server.compression.min-response-size=0",
+                "server.http2.enabled=true",
+                "app.json-cache.enabled=true"
+        })
+class PersonCompressionLoadTest extends AbstractIntegrationTest {
+
+    private static final int PEOPLE = 1_000;
+    private static final int REQUESTS = 2_000;
+    private static final int CONCURRENCY = 64;
+    private static final int[] PAGE_SIZES = {1, 10, 100, 1_000};
+
+    private Logger logger = Logger.getLogger(getClass().getName());
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @DisplayName("Load Test when Pages Are Fetched With And Without Compression then Report Size Throughput And Latency")
+    @Test
+    void loadTest_whenPagesAreFetchedWithAndWithoutCompression_thenReportSizeThroughputAndLatency() throws Exception {
+        List<Person> people = new ArrayList<>(PEOPLE);
+        for (int i = 0; i < PEOPLE; i++) {
+            people.add(new Person("Load", "Test " + i, "Uberlândia - MG - Brasil", i % 2 == 0 ? "Male" : "Female",
+                    "compression-" + i + "@loadtest.com"));
+        }
+        repository.saveAll(people);
+
+        for (HttpClient.Version version : HttpClient.Version.values()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(version)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            for (int pageSize : PAGE_SIZES) {
+                for (String encoding : new String[]{"identity", "gzip"}) {
+                    run(client, version, pageSize, encoding);
+                }
+            }
+        }
+    }
+
+    private void run(HttpClient client, HttpClient.Version version, int pageSize, String encoding) throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/person?limit=" + pageSize);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Accept-Encoding", encoding)
+                .GET()
+                .build();
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+
+        long start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                int slot = i;
+                executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        long sent = System.nanoTime();
+                        //Raw body as received on the wire, HttpClient does not decompress
+                        var response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        latencies[slot] = System.nanoTime() - sent;
+                        if (response.statusCode() != 200) failures.incrementAndGet();
+                        bytes.addAndGet(response.body().length);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        Arrays.sort(latencies);
+
+        logger.info(String.format("%s page=%d encoding=%s: %d bytes/response, %.0f req/s, p50=%.2fms p99=%.2fms",
+                version, pageSize, encoding, bytes.get() / REQUESTS, REQUESTS / seconds,
+                latencies[REQUESTS / 2] / 1_000_000.0, latencies[REQUESTS * 99 / 100] / 1_000_000.0));
+        assertEquals(0, failures.get());
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.marcos.loadtests;
+
+import br.com.marcos.integrationtests.containers.AbstractIntegrationTest;
+import br.com.marcos.model.Person;
+import br.com.marcos.respositories.PersonRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Run with mvn test -Pload-test; one client floods full pages while another reads single people next to it
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "app.rate-limit.enabled=true",
+                "app.rate-limit.client-header=X-Client-Id",
+                "app.rate-limit.requests-per-second=100",
+                "app.rate-limit.burst=100",
+                "app.rate-limit.max-pool-waiters=10",
+                //A small pool makes the flood saturate it
+                "spring.datasource.hikari.maximum-pool-size=5",
+                "spring.datasource.hikari.minimum-idle=5"
+        })
+class PersonOverloadLoadTest extends AbstractIntegrationTest {
+
+    private static final int PEOPLE = 1_000;
+    private static final int FLOOD_CONCURRENCY = 200;
+    private static final int VICTIM_REQUESTS = 500;
+
+    private Logger logger = Logger.getLogger(getClass().getName());
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @DisplayName("Load Test when One Client Floods Full Pages then Other Clients Keep A Bounded Tail Latency")
+    @Test
+    void loadTest_whenOneClientFloodsFullPages_thenOtherClientsKeepABoundedTailLatency() throws Exception {
+        List<Person> people = new ArrayList<>(PEOPLE);
+        for (int i = 0; i < PEOPLE; i++) {
+            people.add(new Person("Load", "Test " + i, "Uberlândia - MG - Brasil", "Male",
+                    "overload-" + i + "@loadtest.com"));
+        }
+        Long id = repository.saveAll(people).get(0).getId();
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest flood = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/person?limit=1000"))
+                .header("X-Client-Id", "flood")
+                .GET()
+                .build();
+        HttpRequest read = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/person/" + id))
+                .header("X-Client-Id", "victim")
+                .GET()
+                .build();
+
+        Map<Integer, AtomicInteger> floodStatuses = new ConcurrentHashMap<>();
+        Map<Integer, AtomicInteger> victimStatuses = new ConcurrentHashMap<>();
+        long[] latencies = new long[VICTIM_REQUESTS];
+        AtomicBoolean flooding = new AtomicBoolean(true);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < FLOOD_CONCURRENCY; i++) {
+                executor.submit(() -> {
+                    while (flooding.get()) {
+                        var response = client.send(flood, HttpResponse.BodyHandlers.discarding());
+                        floodStatuses.computeIfAbsent(response.statusCode(), status -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            //Well under the per-client rate, so every 429 here would be a bug
+            for (int i = 0; i < VICTIM_REQUESTS; i++) {
+                long sent = System.nanoTime();
+                var response = client.send(read, HttpResponse.BodyHandlers.discarding());
+                latencies[i] = System.nanoTime() - sent;
+                victimStatuses.computeIfAbsent(response.statusCode(), status -> new AtomicInteger()).incrementAndGet();
+                Thread.sleep(20);
+            }
+            flooding.set(false);
+        }
+        Arrays.sort(latencies);
+
+        logger.info(String.format("flood statuses=%s, victim statuses=%s, victim p50=%.2fms p99=%.2fms max=%.2fms",
+                floodStatuses, victimStatuses, latencies[VICTIM_REQUESTS / 2] / 1_000_000.0,
+                latencies[VICTIM_REQUESTS * 99 / 100] / 1_000_000.0, latencies[VICTIM_REQUESTS - 1] / 1_000_000.0));
+        assertEquals(0, victimStatuses.getOrDefault(429, new AtomicInteger()).get());
+        assertEquals(0, floodStatuses.getOrDefault(500, new AtomicInteger()).get());
+    }
+}
@@ -0,0 +1,151 @@
+package br.com.marcos.loadtests;
+
+import br.com.marcos.integrationtests.containers.AbstractIntegrationTest;
+import br.com.marcos.model.Person;
+import br.com.marcos.services.PersonServices;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Loads search.rows people (10M by default) and checks every search filter is answered from an index.
+//The plans are taken for the SQL Hibernate really sends for PersonServices.search, captured with a
+//StatementInspector, not for hand-written queries that could drift from what the Specifications generate
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class PersonSearchIndexLoadTest extends AbstractIntegrationTest {
+
+    private static final long ROWS = Long.getLong("search.rows", 10_000_000L);
+    //Far above anything person_seq hands out to the other tests sharing the container
+    private static final long FIRST_ID = 1_000_000_000L;
+    private static final int LIMIT = 100;
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class CaptureSql {
+        @Bean
+        HibernatePropertiesCustomizer captureStatements() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                statements.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    private Logger logger = Logger.getLogger(PersonSearchIndexLoadTest.class.getName());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PersonServices services;
+
+    @BeforeAll
+    void populate() {
+        long start = System.nanoTime();
+        jdbcTemplate.update("""
+                insert into person (id, first_name, last_name, address, gender, email, version)
+                select ? + g, 'First ' || (g % 5000), 'Last ' || (g % 20000), 'Street ' || (g % 100000) || ' - Uberlândia',
+                       case when g % 2 = 0 then 'Male' else 'Female' end, 'search' || g || '@loadtest.com', 0
+                from generate_series(1, ?) g
+                on conflict do nothing
+                """, FIRST_ID, ROWS);
+        //Refreshes planner statistics and the visibility map
+        jdbcTemplate.execute("vacuum analyze person");
+        logger.info(String.format("Loaded %d people in %.1fs", ROWS, (System.nanoTime() - start) / 1e9));
+    }
+
+    //Runs the search, then explains the statement it sent with the same values, given in the order the
+    //Specification binds them: the cursor, each filter, and the limit of one row more than the page
+    private String plan(String name, Supplier<Slice<Person>> search, Object... binds) {
+        statements.clear();
+        long start = System.nanoTime();
+        Slice<Person> page = search.get();
+        logger.info(String.format("%s: %d rows in %.3fms", name, page.getNumberOfElements(), (System.nanoTime() - start) / 1e6));
+
+        String sql = statements.stream()
+                .filter(statement -> statement.startsWith("select") && statement.contains(" from person "))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No person select captured: " + statements));
+        assertEquals(binds.length, sql.chars().filter(c -> c == '?').count(), sql);
+
+        List<String> lines = jdbcTemplate.queryForList("explain (analyze, buffers) " + sql, String.class, binds);
+        String plan = String.join("\n", lines);
+        logger.info(sql + "\n" + plan);
+        return plan;
+    }
+
+    @DisplayName("Load Test when Search By Name then Use Composite Index In Id Order")
+    @Test
+    void loadTest_whenSearchByName_thenUseCompositeIndexInIdOrder() {
+        //The search loads whole rows, so the heap is visited: an Index Scan, not an Index Only Scan
+        String plan = plan("search by name",
+                () -> services.search("First 123", "Last 123", null, null, null, null, LIMIT),
+                0L, "First 123", "Last 123", LIMIT + 1);
+        assertTrue(plan.contains("Index Scan using idx_person_last_first_id"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @DisplayName("Load Test when Search By First Name Only then Use First Name Index")
+    @Test
+    void loadTest_whenSearchByFirstNameOnly_thenUseFirstNameIndex() {
+        String plan = plan("search by first name",
+                () -> services.search("First 123", null, null, null, null, null, LIMIT),
+                0L, "First 123", LIMIT + 1);
+        assertTrue(plan.contains("idx_person_first_id"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @DisplayName("Load Test when Search By Gender then Walk An Index In Id Order")
+    @Test
+    void loadTest_whenSearchByGender_thenWalkAnIndexInIdOrder() {
+        //Low selectivity: the planner may pick idx_person_gender_id or the primary key, but never a scan plus sort
+        long after = FIRST_ID + 5_000_000L;
+        String plan = plan("search by gender",
+                () -> services.search(null, null, null, "Female", null, after, LIMIT),
+                after, "Female", LIMIT + 1);
+        assertFalse(plan.contains("Seq Scan"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @DisplayName("Load Test when Search By Address Prefix then Use Pattern Index")
+    @Test
+    void loadTest_whenSearchByAddressPrefix_thenUsePatternIndex() {
+        String plan = plan("search by address",
+                () -> services.search(null, null, null, null, "Street 4242 -", null, LIMIT),
+                0L, "Street 4242 -%", LIMIT + 1);
+        assertTrue(plan.contains("idx_person_address_prefix"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @DisplayName("Load Test when Search By Email then Use Unique Index")
+    @Test
+    void loadTest_whenSearchByEmail_thenUseUniqueIndex() {
+        String plan = plan("search by email",
+                () -> services.search(null, null, "search4242@loadtest.com", null, null, null, LIMIT),
+                0L, "search4242@loadtest.com", LIMIT + 1);
+        assertTrue(plan.contains("uk_person_email"), plan);
+    }
+}
@@ -0,0 +1,12 @@
+package br.com.marcos.loadtests;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadThroughputLoadTest extends AbstractThroughputLoadTest {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
@@ -53,7 +53,7 @@ public class PersonRepositoryTest extends AbstractIntegrationTest {
                 "Soares",
                 "Uberlândia - Minas Gerais - Brasil",
                 "Male",
-                "mhredbluz@gmail.com");
+                "angelo@gmail.com");
 
         repository.save(person0);
         repository.save(person1);
@@ -0,0 +1,116 @@
+package br.com.marcos.repositories;
+
+import br.com.marcos.integrationtests.containers.AbstractIntegrationTest;
+import br.com.marcos.model.Person;
+import br.com.marcos.respositories.PersonRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptStatementFailedException;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PersonSequenceMigrationTest extends AbstractIntegrationTest {
+
+    //More than one allocation block of person_seq, so the inserts below need fresh blocks from the sequence
+    private static final int ROWS = 120;
+
+    @Autowired
+    PersonRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataSource dataSource;
+
+    @DisplayName("JUnit test Given Rows Ahead Of The Sequence when Migration Runs then Batched Inserts Get Free Ids")
+    @Test
+    void testGivenRowsAheadOfTheSequence_whenMigrationRuns_thenBatchedInsertsGetFreeIds() {
+        //Given / Arrange: rows written by the old identity column, above anything person_seq has handed out
+        long lastValue = jdbcTemplate.queryForObject("select last_value from person_seq", Long.class);
+        Set<Long> legacyIds = new HashSet<>();
+        for (long id = lastValue + 1; id <= lastValue + ROWS; id++) {
+            jdbcTemplate.update("insert into person (id, first_name, last_name, address, gender, email, version) "
+                    + "values (?, 'Legacy', 'Row', 'Uberlândia - MG - Brasil', 'Male', ?, 0)", id, "legacy-" + id + "@gmail.com");
+            legacyIds.add(id);
+        }
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            people.add(new Person("Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "sequence-" + i + "@gmail.com"));
+        }
+
+        //When / Act
+        new ResourceDatabasePopulator(new ClassPathResource("db/person-migrations.sql")).execute(dataSource);
+        List<Person> saved = repository.saveAllAndFlush(people);
+
+        //Then / Assert
+        assertEquals(ROWS, saved.size());
+        for (Person person : saved) {
+            assertFalse(legacyIds.contains(person.getId()), "id " + person.getId() + " was already taken");
+        }
+        assertTrue(jdbcTemplate.queryForObject("select last_value from person_seq", Long.class) > lastValue + ROWS);
+    }
+
+    @DisplayName("JUnit test Given Row Without Version when Migration Runs then Version Starts At Zero")
+    @Test
+    void testGivenRowWithoutVersion_whenMigrationRuns_thenVersionStartsAtZero() {
+        //Given / Arrange: a row inserted before the version column existed
+        long id = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1000 from person", Long.class);
+        jdbcTemplate.update("insert into person (id, first_name, last_name, address, gender, email) "
+                + "values (?, 'Legacy', 'Row', 'Uberlândia - MG - Brasil', 'Male', ?)", id, "unversioned-" + id + "@gmail.com");
+
+        //When / Act
+        new ResourceDatabasePopulator(new ClassPathResource("db/person-migrations.sql")).execute(dataSource);
+
+        //Then / Assert
+        assertEquals(0L, jdbcTemplate.queryForObject("select version from person where id = ?", Long.class, id));
+        assertEquals(0L, repository.findById(id).orElseThrow().getVersion());
+    }
+
+    @DisplayName("JUnit test Given Table Without Email Constraint when Migration Runs then Create It")
+    @Test
+    void testGivenTableWithoutEmailConstraint_whenMigrationRuns_thenCreateIt() {
+        //Given / Arrange: a table created before the constraint, rolled back with the test transaction
+        jdbcTemplate.execute("alter table person drop constraint uk_person_email");
+
+        //When / Act
+        new ResourceDatabasePopulator(new ClassPathResource("db/person-migrations.sql")).execute(dataSource);
+
+        //Then / Assert
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from pg_constraint where conname = ? "
+                + "and conrelid = 'person'::regclass and contype = 'u'", Integer.class, Person.EMAIL_CONSTRAINT));
+    }
+
+    @DisplayName("JUnit test Given Duplicate Emails Without Constraint when Migration Runs then Fail")
+    @Test
+    void testGivenDuplicateEmailsWithoutConstraint_whenMigrationRuns_thenFail() {
+        //Given / Arrange: duplicates ddl-auto could not add the constraint over
+        jdbcTemplate.execute("alter table person drop constraint uk_person_email");
+        long id = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1000 from person", Long.class);
+        for (long duplicate = id; duplicate < id + 2; duplicate++) {
+            jdbcTemplate.update("insert into person (id, first_name, last_name, address, gender, email, version) "
+                    + "values (?, 'Legacy', 'Row', 'Uberlândia - MG - Brasil', 'Male', 'duplicate@gmail.com', 0)", duplicate);
+        }
+        ResourceDatabasePopulator migrations = new ResourceDatabasePopulator(new ClassPathResource("db/person-migrations.sql"));
+
+        //When / Act
+        ScriptStatementFailedException e = assertThrows(ScriptStatementFailedException.class, () -> migrations.execute(dataSource));
+
+        //Then / Assert
+        assertTrue(e.getCause().getMessage().contains("used by more than one person"), e.getCause().getMessage());
+    }
+}
@@ -0,0 +1,119 @@
+package br.com.marcos.services;
+
+import br.com.marcos.model.PersonChange;
+import br.com.marcos.respositories.PersonChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class PersonChangeFeedTest {
+
+    private PersonChangeFeed feed;
+    private PersonChangeRepository repository;
+
+    @BeforeEach
+    public void setup() {
+        repository = mock(PersonChangeRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        feed = new PersonChangeFeed();
+        feed.repository = repository;
+        feed.transactionTemplate = transactionTemplate;
+        feed.registry = new SimpleMeterRegistry();
+        feed.batchSize = 500;
+        //Not enabled: no scheduler, the test publishes by hand
+        feed.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        feed.stop();
+    }
+
+    @DisplayName("JUnit test Given Unpublished Changes when Publish then Number Them After The Last Published Seq")
+    @Test
+    void testGivenUnpublishedChanges_whenPublish_thenNumberThemAfterTheLastPublishedSeq() throws Exception {
+        //Given / Arrange
+        List<PersonChange> unpublished = List.of(change(1L, null), change(2L, null));
+        given(repository.findUnpublished(any(Pageable.class))).willReturn(unpublished, List.of());
+        given(repository.findLastPublishedSeq()).willReturn(7L);
+        BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+        feed.subscribe(7L, change -> received.add(change.getPublishedSeq()), () -> {});
+
+        //When / Act
+        feed.publish();
+
+        //Then / Assert
+        assertEquals(8L, received.poll(5, TimeUnit.SECONDS));
+        assertEquals(9L, received.poll(5, TimeUnit.SECONDS));
+        assertNotNull(unpublished.get(1).getPublishedAt());
+        assertEquals(2.0, feed.registry.get("person.changes.published").counter().count());
+    }
+
+    @DisplayName("JUnit test Given Subscriber Behind The Batch when Publish then Fill The Gap From The Table First")
+    @Test
+    void testGivenSubscriberBehindTheBatch_whenPublish_thenFillTheGapFromTheTableFirst() throws Exception {
+        //Given / Arrange
+        given(repository.findUnpublished(any(Pageable.class))).willReturn(List.of(change(6L, null)), List.of());
+        given(repository.findLastPublishedSeq()).willReturn(5L);
+        given(repository.findPublished(eq(3L), eq(5L), any(Pageable.class)))
+                .willReturn(List.of(change(4L, 4L), change(5L, 5L)));
+        BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+        feed.subscribe(3L, change -> received.add(change.getPublishedSeq()), () -> {});
+
+        //When / Act
+        feed.publish();
+
+        //Then / Assert
+        List<Long> sequence = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sequence.add(received.poll(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(4L, 5L, 6L), sequence);
+    }
+
+    @DisplayName("JUnit test Given Failing Sink when Publish then Drop The Subscriber")
+    @Test
+    void testGivenFailingSink_whenPublish_thenDropTheSubscriber() throws Exception {
+        //Given / Arrange
+        given(repository.findUnpublished(any(Pageable.class))).willReturn(List.of(change(1L, null)), List.of());
+        BlockingQueue<Boolean> closed = new LinkedBlockingQueue<>();
+        feed.subscribe(0L, change -> {
+            throw new IOException("Broken pipe");
+        }, () -> closed.add(true));
+
+        //When / Act
+        feed.publish();
+
+        //Then / Assert
+        assertEquals(true, closed.poll(5, TimeUnit.SECONDS));
+        assertEquals(0.0, feed.registry.get("person.changes.subscribers").gauge().value());
+        verify(repository, never()).findPublished(anyLong(), anyLong(), any(Pageable.class));
+    }
+
+    private static PersonChange change(Long personId, Long publishedSeq) {
+        PersonChange change = new PersonChange(personId, PersonChange.Type.UPDATED, 1L, "{}");
+        change.setPublishedSeq(publishedSeq);
+        return change;
+    }
+}
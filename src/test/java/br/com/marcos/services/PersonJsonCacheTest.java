@@ -0,0 +1,74 @@
+package br.com.marcos.services;
+
+import br.com.marcos.model.Person;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersonJsonCacheTest {
+
+    private PersonJsonCache jsonCache;
+
+    @BeforeEach
+    public void setup() {
+        jsonCache = new PersonJsonCache();
+        jsonCache.mapper = new ObjectMapper();
+        jsonCache.enabled = true;
+        jsonCache.maxBytes = 1024 * 1024;
+        jsonCache.init();
+    }
+
+    private static Person person(String firstName, long version) {
+        Person person = new Person(1L, firstName, "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com");
+        person.setVersion(version);
+        return person;
+    }
+
+    @DisplayName("JUnit test Given Reader Loaded Row Before Update when Caching After Invalidate then Refuse Stale JSON")
+    @Test
+    void testGivenReaderLoadedRowBeforeUpdate_whenCachingAfterInvalidate_thenRefuseStaleJson() {
+        //Given / Arrange
+        Person loadedBeforeCommit = person("Marcos", 3L);
+        jsonCache.invalidate(1L, 4L);
+
+        //When / Act
+        jsonCache.get(loadedBeforeCommit);
+
+        //Then / Assert
+        assertNull(jsonCache.get(1L));
+        jsonCache.get(person("Hugo", 4L));
+        assertEquals(4L, jsonCache.get(1L).version());
+    }
+
+    @DisplayName("JUnit test Given Deleted Person when Caching Row Loaded Before Delete then Serve Nothing")
+    @Test
+    void testGivenDeletedPerson_whenCachingRowLoadedBeforeDelete_thenServeNothing() {
+        //Given / Arrange
+        jsonCache.get(person("Marcos", 3L));
+        jsonCache.invalidate(1L);
+
+        //When / Act
+        PersonJsonCache.Entry rendered = jsonCache.get(person("Marcos", 3L));
+
+        //Then / Assert
+        assertNotNull(rendered.bytes());
+        assertNull(jsonCache.get(1L));
+    }
+
+    @DisplayName("JUnit test Given Committed Version Already Cached when Invalidate then Keep Its JSON")
+    @Test
+    void testGivenCommittedVersionAlreadyCached_whenInvalidate_thenKeepItsJson() {
+        //Given / Arrange
+        jsonCache.get(person("Hugo", 4L));
+
+        //When / Act
+        jsonCache.invalidate(1L, 4L);
+
+        //Then / Assert
+        assertNotNull(jsonCache.get(1L));
+        assertEquals(4L, jsonCache.get(1L).version());
+    }
+}
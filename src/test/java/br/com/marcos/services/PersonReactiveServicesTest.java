@@ -0,0 +1,94 @@
+package br.com.marcos.services;
+
+import br.com.marcos.exceptions.PreconditionFailedException;
+import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.Person;
+import br.com.marcos.respositories.PersonReactiveRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class PersonReactiveServicesTest {
+
+    @Mock
+    private PersonReactiveRepository repository;
+    @InjectMocks
+    private PersonReactiveServices services;
+
+    @DisplayName("JUnit test Given Maximum Limit when findPage then Read One Extra Row And Report Next Page")
+    @Test
+    void testGivenMaximumLimit_whenFindPage_thenReadOneExtraRowAndReportNextPage() {
+        //Given / Arrange
+        List<Person> rows = new ArrayList<>();
+        for (long id = 1; id <= PersonServices.MAX_PAGE_SIZE + 1; id++) {
+            rows.add(new Person(id, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", id + "@gmail.com"));
+        }
+        given(repository.findPage(0L, PersonServices.MAX_PAGE_SIZE + 1)).willReturn(Flux.fromIterable(rows));
+
+        //When / Act
+        Slice<Person> page = services.findPage(null, PersonServices.MAX_PAGE_SIZE).block();
+
+        //Then / Assert
+        assertNotNull(page);
+        assertTrue(page.hasNext());
+        assertEquals(PersonServices.MAX_PAGE_SIZE, page.getNumberOfElements());
+        assertEquals(PersonServices.MAX_PAGE_SIZE, page.getContent().get(page.getNumberOfElements() - 1).getId());
+    }
+
+    @DisplayName("JUnit test Given Stale Version when Update Person then Throws PreconditionFailedException")
+    @Test
+    void testGivenStaleVersion_whenUpdatePerson_thenThrowsPreconditionFailedException() {
+        //Given / Arrange
+        Person stale = new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com.br");
+        stale.setVersion(3L);
+        given(repository.update(stale)).willReturn(Mono.empty());
+        given(repository.findVersionById(1L)).willReturn(Mono.just(4L));
+
+        //When / Act
+        assertThrows(PreconditionFailedException.class, () -> services.update(stale).block());
+    }
+
+    @DisplayName("JUnit test Given Missing Id when Update Person With Version then Throws ResourceNotFoundException")
+    @Test
+    void testGivenMissingId_whenUpdatePersonWithVersion_thenThrowsResourceNotFoundException() {
+        //Given / Arrange
+        Person missing = new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com.br");
+        missing.setVersion(3L);
+        given(repository.update(missing)).willReturn(Mono.empty());
+        given(repository.findVersionById(1L)).willReturn(Mono.empty());
+
+        //When / Act
+        assertThrows(ResourceNotFoundException.class, () -> services.update(missing).block());
+    }
+
+    @DisplayName("JUnit test Given Stale Version when updateAll then Report Conflict")
+    @Test
+    void testGivenStaleVersion_whenUpdateAll_thenReportConflict() {
+        //Given / Arrange
+        Person stale = new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com.br");
+        stale.setVersion(3L);
+        given(repository.update(stale)).willReturn(Mono.empty());
+        given(repository.findVersionById(1L)).willReturn(Mono.just(4L));
+
+        //When / Act
+        List<BatchItemResult> results = services.updateAll(List.of(stale)).collectList().block();
+
+        //Then / Assert
+        assertNotNull(results);
+        assertEquals(BatchItemResult.Status.CONFLICT, results.get(0).getStatus());
+    }
+}
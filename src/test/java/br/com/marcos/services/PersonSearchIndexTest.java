@@ -0,0 +1,118 @@
+package br.com.marcos.services;
+
+import br.com.marcos.model.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersonSearchIndexTest {
+
+    private PersonSearchIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new PersonSearchIndex();
+        index.enabled = true;
+        index.registry = new SimpleMeterRegistry();
+        index.registerMetrics();
+
+        index.put(new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com"));
+        index.put(new Person(2L, "André", "Pereira", "São Paulo - SP - Brasil", "Male", "andrep@hotmail.com"));
+        index.put(new Person(3L, "Marcia", "Souza", "Rio de Janeiro - RJ - Brasil", "Female", "marcia@gmail.com"));
+    }
+
+    @DisplayName("JUnit test Given Misspelled Name when Search then Return Closest Person First")
+    @Test
+    void testGivenMisspelledName_whenSearch_thenReturnClosestPersonFirst() {
+        //When / Act
+        List<Long> ids = index.search("Marcos Dutar", 10);
+        //Then / Assert
+        assertFalse(ids.isEmpty());
+        assertEquals(1L, ids.get(0));
+    }
+
+    @DisplayName("JUnit test Given Accentless Partial Address when Search then Match Accented Address")
+    @Test
+    void testGivenAccentlessPartialAddress_whenSearch_thenMatchAccentedAddress() {
+        //When / Act
+        List<Long> ids = index.search("sao paul", 10);
+        //Then / Assert
+        assertEquals(2L, ids.get(0));
+    }
+
+    @DisplayName("JUnit test Given Updated And Removed Persons when Search then Reflect Latest State")
+    @Test
+    void testGivenUpdatedAndRemovedPersons_whenSearch_thenReflectLatestState() {
+        //Given / Arrange
+        index.put(new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com"));
+        index.remove(3L);
+        //When / Act / Then / Assert
+        assertFalse(index.search("Marcos", 10).contains(1L));
+        assertTrue(index.search("Hugo", 10).contains(1L));
+        assertFalse(index.search("Marcia Souza", 10).contains(3L));
+        assertEquals(2, index.size());
+    }
+
+    @DisplayName("JUnit test Given Many Updates when Compacting then Keep Every Live Person Searchable")
+    @Test
+    void testGivenManyUpdates_whenCompacting_thenKeepEveryLivePersonSearchable() {
+        //Given / Arrange
+        for (int round = 0; round < 3; round++) {
+            for (long id = 10; id < 1010; id++) {
+                index.put(new Person(id, "Person" + id, "Round" + round, "Street " + id, "Male", id + "@gmail.com"));
+            }
+        }
+        //When / Act / Then / Assert
+        assertEquals(1003, index.size());
+        assertEquals(List.of(500L), index.search("Person500 Round2", 1));
+        assertTrue(index.estimatedBytes() > 0);
+    }
+
+    @DisplayName("JUnit test Given Write During Load when Stale Row Is Loaded then Keep Written Row")
+    @Test
+    void testGivenWriteDuringLoad_whenStaleRowIsLoaded_thenKeepWrittenRow() {
+        //Given / Arrange
+        index.put(new Person(4L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com"));
+        index.remove(5L);
+
+        //When / Act
+        index.load(new Person(4L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com"));
+        index.load(new Person(5L, "André", "Pereira", "São Paulo - SP - Brasil", "Male", "andrep@hotmail.com"));
+        index.load(new Person(6L, "Lucas", "Lima", "Belo Horizonte - MG - Brasil", "Male", "lucas@gmail.com"));
+        index.markLoaded();
+
+        //Then / Assert
+        assertTrue(index.isReady());
+        assertTrue(index.search("Hugo", 10).contains(4L));
+        assertFalse(index.search("Marcos", 10).contains(4L));
+        assertTrue(index.search("Andre Pereira", 10).stream().noneMatch(id -> id == 5L));
+        assertEquals(List.of(6L), index.search("Lucas Lima Belo Horizonte", 1));
+    }
+
+    @DisplayName("JUnit test Given Index Not Loaded when isReady then Return False")
+    @Test
+    void testGivenIndexNotLoaded_whenIsReady_thenReturnFalse() {
+        //When / Act / Then / Assert
+        assertFalse(index.isReady());
+    }
+
+    @DisplayName("JUnit test Given Many Persons Sharing Common Trigrams when Search then Rank From Rare Trigram Candidates")
+    @Test
+    void testGivenManyPersonsSharingCommonTrigrams_whenSearch_thenRankFromRareTrigramCandidates() {
+        //Given / Arrange
+        for (long id = 10; id < 2010; id++) {
+            index.put(new Person(id, "Maria", "Silva" + id, "Rua Brasil " + id, "Female", id + "@gmail.com"));
+        }
+        //When / Act
+        List<Long> ids = index.search("Marcos Dutra Brasil", 5);
+        //Then / Assert
+        assertEquals(1L, ids.get(0));
+        assertEquals(5, ids.size());
+        assertTrue(index.search("Zzyzx Qwv", 5).isEmpty());
+    }
+}
@@ -1,19 +1,42 @@
 package br.com.marcos.services;
 
+import br.com.marcos.exceptions.BadRequestException;
+import br.com.marcos.exceptions.PreconditionFailedException;
 import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.exceptions.ServiceUnavailableException;
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.ImportSummary;
 import br.com.marcos.model.Person;
+import br.com.marcos.model.PersonChange;
 import br.com.marcos.respositories.PersonRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -24,6 +47,26 @@ public class PersonServicesTest {
 
     @Mock
     private PersonRepository repository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private PersonMetrics metrics;
+    @Mock
+    private PersonSearchIndex searchIndex;
+    @Mock
+    private PersonSnapshot snapshot;
+    @Mock
+    private PersonJsonCache jsonCache;
+    @Mock
+    private PersonWriteBehindBuffer writeBehind;
+    @Mock
+    private PersonChangeFeed changeFeed;
+    @Spy
+    private PersonSingleFlight singleFlight = new PersonSingleFlight();
     @InjectMocks
     private PersonServices services;
     private Person person0;
@@ -43,25 +86,51 @@ public class PersonServicesTest {
      @Test
      void testGivenPersonObject_whenSavePerson_thenReturnPersonObject() {
          //Given / Arrange
-         given(repository.findByEmail(anyString())).willReturn(Optional.empty());
-         given(repository.save(person0)).willReturn(person0);
+         given(repository.saveAndFlush(person0)).willReturn(person0);
          //When / Act
          Person savedPerson = services.create(person0);
          //Then / Assert
          assertNotNull(savedPerson);
          assertEquals("Marcos", savedPerson.getFirstName());
+         verify(changeFeed, times(1)).recordSaved(PersonChange.Type.CREATED, person0);
+     }
+     @DisplayName("JUnit test Given Client Supplied Id And Version when Save Person then Insert A New Row")
+     @Test
+     void testGivenClientSuppliedIdAndVersion_whenSavePerson_thenInsertANewRow() {
+         //Given / Arrange
+         person0.setId(7L);
+         person0.setVersion(3L);
+         given(repository.saveAndFlush(any(Person.class))).willAnswer(invocation -> invocation.getArgument(0));
+         //When / Act
+         services.create(person0);
+         //Then / Assert
+         ArgumentCaptor<Person> inserted = ArgumentCaptor.forClass(Person.class);
+         verify(repository).saveAndFlush(inserted.capture());
+         assertNull(inserted.getValue().getId());
+         assertNull(inserted.getValue().getVersion());
      }
      @DisplayName("JUnit test Given Existing Email when Save Person then Throws Exception")
      @Test
      void testGivenExistingEmail_whenSavePerson_thenThrowsException() {
          //Given / Arrange
-         given(repository.findByEmail(anyString())).willReturn(Optional.of(person0));
+         given(repository.saveAndFlush(person0)).willThrow(new DataIntegrityViolationException("duplicate key",
+                 new ConstraintViolationException("duplicate key", null, Person.EMAIL_CONSTRAINT)));
          //When / Act
          assertThrows(ResourceNotFoundException.class, () -> {
              services.create(person0);
          });
          //Then / Assert
-         verify(repository, never()).save(any(Person.class));
+         verify(repository, never()).findByEmail(anyString());
+     }
+     @DisplayName("JUnit test Given Existing Email when findByEmail then Return Person Object")
+     @Test
+     void testGivenExistingEmail_whenFindByEmail_thenReturnPersonObject() {
+         //Given / Arrange
+         given(repository.findByEmail("mhredbluz@gmail.com")).willReturn(Optional.of(person0));
+         //When / Act
+         Person foundPerson = services.findByEmail("mhredbluz@gmail.com");
+         //Then / Assert
+         assertEquals("Marcos", foundPerson.getFirstName());
      }
      @DisplayName("JUnit test Given Person list when findAll Persons then return person list")
      @Test
@@ -81,6 +150,7 @@ public class PersonServicesTest {
          //Then / Assert
         assertNotNull(personList);
         assertEquals(2, personList.size());
+        verify(metrics).rowsReturned("findAll", 2);
     }
     @DisplayName("JUnit test Given Empty Person list when findAll Persons then return Empty person list")
      @Test
@@ -94,6 +164,152 @@ public class PersonServicesTest {
         assertTrue(personList.isEmpty());
         assertEquals(0, personList.size());
     }
+    @DisplayName("JUnit test Given Oversized Limit when findPage then Clamp Page Size")
+    @Test
+    void testGivenOversizedLimit_whenFindPage_thenClampPageSize() {
+        //Given / Arrange
+        given(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .willReturn(new SliceImpl<>(List.of(person0)));
+        //When / Act
+        Slice<Person> page = services.findPage(null, 1_000_000);
+        //Then / Assert
+        assertEquals(1, page.getContent().size());
+        verify(repository).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(PersonServices.MAX_PAGE_SIZE));
+    }
+    @DisplayName("JUnit test Given Ready Snapshot when findPage then Database Is Not Queried")
+    @Test
+    void testGivenReadySnapshot_whenFindPage_thenDatabaseIsNotQueried() {
+        //Given / Arrange
+        Person person1 = new Person(2L, "Henrique", "Soares", "Uberlândia - MG - Brasil", "Male", "henrique@gmail.com");
+        person0.setId(1L);
+        given(snapshot.isReady()).willReturn(true);
+        given(snapshot.findPage(0L, 2)).willReturn(List.of(person0, person1));
+        //When / Act
+        Slice<Person> page = services.findPage(null, 1);
+        //Then / Assert
+        assertEquals(List.of(person0), page.getContent());
+        assertTrue(page.hasNext());
+        verify(repository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+    }
+    @DisplayName("JUnit test Given Person List With Taken Email when createAll then Return Per Item Results")
+    @Test
+    void testGivenPersonListWithTakenEmail_whenCreateAll_thenReturnPerItemResults() {
+        //Given / Arrange
+        Person person1 = new Person("Henrique", "Soares", "Uberlândia - MG - Brasil", "Male", "henrique@gmail.com");
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        given(repository.findEmailsIn(anySet())).willReturn(List.of("mhredbluz@gmail.com"));
+        given(repository.save(person1)).willAnswer(invocation -> {
+            person1.setId(7L);
+            return person1;
+        });
+        //When / Act
+        List<BatchItemResult> results = services.createAll(List.of(person0, person1));
+        //Then / Assert
+        assertEquals(2, results.size());
+        assertEquals(BatchItemResult.Status.CONFLICT, results.get(0).getStatus());
+        assertEquals(BatchItemResult.Status.CREATED, results.get(1).getStatus());
+        assertEquals(7L, results.get(1).getId());
+        verify(repository, never()).save(person0);
+        verify(entityManager).flush();
+    }
+    @DisplayName("JUnit test Given One Failing Row when updateAll then Retry The Chunk Item By Item")
+    @Test
+    void testGivenOneFailingRow_whenUpdateAll_thenRetryTheChunkItemByItem() {
+        //Given / Arrange
+        Person first = new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com");
+        Person second = new Person(2L, "Henrique", "Soares", "Uberlândia - MG - Brasil", "Male", "henrique@gmail.com");
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        given(repository.findAllById(List.of(1L, 2L))).willReturn(List.of(first, second));
+        given(repository.findAllById(List.of(1L))).willReturn(List.of(first));
+        given(repository.findAllById(List.of(2L))).willReturn(List.of(second));
+        //The whole chunk fails on its first flush, then the retry of the second row fails again
+        willThrow(new DataIntegrityViolationException("duplicate key"))
+                .willDoNothing()
+                .willDoNothing()
+                .willThrow(new DataIntegrityViolationException("duplicate key"))
+                .given(entityManager).flush();
+        //When / Act
+        List<BatchItemResult> results = services.updateAll(List.of(
+                new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com"),
+                new Person(2L, "Hugo", "Soares", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com")));
+        //Then / Assert
+        assertEquals(2, results.size());
+        assertEquals(BatchItemResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(2L, results.get(1).getId());
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+    @DisplayName("JUnit test Given Stream Longer Than A Chunk when importAll then Write In Chunks And Count")
+    @Test
+    void testGivenStreamLongerThanAChunk_whenImportAll_thenWriteInChunksAndCount() {
+        //Given / Arrange
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < PersonServices.BATCH_CHUNK_SIZE + 1; i++) {
+            people.add(new Person("Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", i + "@gmail.com"));
+        }
+        people.add(new Person("Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "0@gmail.com"));
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        given(repository.findEmailsIn(anySet())).willReturn(List.of());
+        given(repository.findEmailsIn(Set.of("500@gmail.com", "0@gmail.com"))).willReturn(List.of("0@gmail.com"));
+        given(repository.save(any(Person.class))).willAnswer(invocation -> invocation.getArgument(0));
+        //When / Act
+        ImportSummary summary = services.importAll(people.iterator());
+        //Then / Assert
+        assertEquals(PersonServices.BATCH_CHUNK_SIZE + 2, summary.getRead());
+        assertEquals(PersonServices.BATCH_CHUNK_SIZE + 1, summary.getCreated());
+        assertEquals(1, summary.getConflicts());
+        assertEquals(PersonServices.BATCH_CHUNK_SIZE + 1, summary.getRejected().get(0).getIndex());
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+    @DisplayName("JUnit test Given Unknown Field when findFieldsById then Throws Exception")
+    @Test
+    void testGivenUnknownField_whenFindFieldsById_thenThrowsException() {
+        //When / Act
+        assertThrows(BadRequestException.class, () -> services.findFieldsById(1L, "firstName,password"));
+        //Then / Assert
+        verify(repository, never()).findFieldsById(anyLong(), anyList());
+    }
+    @DisplayName("JUnit test Given Fields when findFieldsById then Select Id And Requested Columns")
+    @Test
+    void testGivenFields_whenFindFieldsById_thenSelectIdAndRequestedColumns() {
+        //Given / Arrange
+        given(repository.findFieldsById(1L, List.of("id", "firstName", "lastName")))
+                .willReturn(Optional.of(Map.of("id", 1L, "firstName", "Marcos", "lastName", "Dutra")));
+        //When / Act
+        Map<String, Object> row = services.findFieldsById(1L, "firstName, lastName");
+        //Then / Assert
+        assertEquals("Marcos", row.get("firstName"));
+        assertEquals(3, row.size());
+    }
+    @DisplayName("JUnit test Given Query when fuzzySearch then Return Persons In Index Rank Order")
+    @Test
+    void testGivenQuery_whenFuzzySearch_thenReturnPersonsInIndexRankOrder() {
+        //Given / Arrange
+        person0.setId(1L);
+        Person person1 = new Person(2L, "Marcio", "Dutra", "São Paulo", "Male", "marcio@gmail.com");
+        given(searchIndex.isEnabled()).willReturn(true);
+        given(searchIndex.isReady()).willReturn(true);
+        given(searchIndex.search("marcso", 20)).willReturn(List.of(2L, 1L));
+        given(repository.findAllById(List.of(2L, 1L))).willReturn(List.of(person0, person1));
+        //When / Act
+        List<Person> results = services.fuzzySearch("marcso", 20);
+        //Then / Assert
+        assertEquals(List.of(2L, 1L), results.stream().map(Person::getId).toList());
+    }
+    @DisplayName("JUnit test Given Index Still Loading when fuzzySearch then Throw Service Unavailable")
+    @Test
+    void testGivenIndexStillLoading_whenFuzzySearch_thenThrowServiceUnavailable() {
+        //Given / Arrange
+        given(searchIndex.isEnabled()).willReturn(true);
+        given(searchIndex.isReady()).willReturn(false);
+        //When / Act / Then / Assert
+        assertThrows(ServiceUnavailableException.class, () -> services.fuzzySearch("marcso", 20));
+        verify(searchIndex, never()).search(anyString(), anyInt());
+    }
     @DisplayName("JUnit test Given Person Id when findById then Return Object")
     @Test
     void testGivenPersonId_whenFindById_thenReturnObject() {
@@ -105,37 +321,182 @@ public class PersonServicesTest {
         assertNotNull(savedPerson);
         assertEquals("Marcos", savedPerson.getFirstName());
     }
+    @DisplayName("JUnit test Given Ready Snapshot when findById then Database Is Not Queried")
+    @Test
+    void testGivenReadySnapshot_whenFindById_thenDatabaseIsNotQueried() {
+        //Given / Arrange
+        given(snapshot.isReady()).willReturn(true);
+        given(snapshot.findById(1L)).willReturn(Optional.of(person0));
+        //When / Act
+        Person found = services.findById(1L);
+        //Then / Assert
+        assertEquals("Marcos", found.getFirstName());
+        verify(repository, never()).findById(anyLong());
+    }
     @DisplayName("JUnit test Given Person Object when Update Person then Return updated person Object")
     @Test
     void testGivenPersonObject_whenUpdatePerson_thenReturnUpdatedPersonObject() {
         //Given / Arrange
         person0.setId(1L);
+        Person changes = new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com.br");
         given(repository.findById(anyLong())).willReturn(Optional.of(person0));
-
-        person0.setFirstName("Hugo");
-        person0.setEmail("hugo@gmail.com.br");
-
-        given(repository.save(person0)).willReturn(person0);
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
 
         //When / Act
-        Person updatedPerson = services.update(person0);
+        Person updatedPerson = services.update(changes);
         //Then / Assert
         assertNotNull(updatedPerson);
         assertEquals("Hugo", updatedPerson.getFirstName());
         assertEquals("hugo@gmail.com.br", updatedPerson.getEmail());
+        //The managed entity is dirty checked, no merge of the detached input
+        verify(repository, never()).save(any(Person.class));
+        verify(entityManager).flush();
+        verify(searchIndex).put(person0);
+    }
+    @DisplayName("JUnit test Given Unchanged Fields when patch Person then Skip The Write")
+    @Test
+    void testGivenUnchangedFields_whenPatchPerson_thenSkipTheWrite() {
+        //Given / Arrange
+        person0.setId(1L);
+        given(repository.findById(1L)).willReturn(Optional.of(person0));
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        //When / Act
+        Person patched = services.patch(1L, Map.of("firstName", "Marcos"), null);
+        //Then / Assert
+        assertSame(person0, patched);
+        verify(entityManager, never()).flush();
+        verify(searchIndex, never()).put(any(Person.class));
+    }
+    @DisplayName("JUnit test Given Unknown Field when patch Person then Throws BadRequestException")
+    @Test
+    void testGivenUnknownField_whenPatchPerson_thenThrowsBadRequestException() {
+        //Given / Arrange
+        given(repository.findById(1L)).willReturn(Optional.of(person0));
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        //When / Act
+        assertThrows(BadRequestException.class, () -> services.patch(1L, Map.of("id", "2"), null));
+    }
+    @DisplayName("JUnit test Given Concurrent Commit when Update Person Without Version then Retry On The Fresh Row")
+    @Test
+    void testGivenConcurrentCommit_whenUpdatePersonWithoutVersion_thenRetryOnTheFreshRow() {
+        //Given / Arrange
+        person0.setId(1L);
+        Person changes = new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com.br");
+        //Every attempt loads the row again, as a new transaction would
+        given(repository.findById(1L)).willAnswer(invocation -> Optional.of(new Person(person0)));
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        willThrow(new OptimisticLockException("Row was updated by another transaction"))
+                .willDoNothing()
+                .given(entityManager).flush();
+
+        //When / Act
+        Person updatedPerson = services.update(changes);
+        //Then / Assert
+        assertEquals("Hugo", updatedPerson.getFirstName());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(entityManager, times(2)).flush();
+    }
+    @DisplayName("JUnit test Given Concurrent Commits when Update Person Without Version then Give Up After Max Attempts")
+    @Test
+    void testGivenConcurrentCommits_whenUpdatePersonWithoutVersion_thenGiveUpAfterMaxAttempts() {
+        //Given / Arrange
+        person0.setId(1L);
+        Person changes = new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com.br");
+        given(repository.findById(1L)).willAnswer(invocation -> Optional.of(new Person(person0)));
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        willThrow(new OptimisticLockException("Row was updated by another transaction"))
+                .given(entityManager).flush();
+
+        //When / Act
+        assertThrows(OptimisticLockingFailureException.class, () -> services.update(changes));
+        //Then / Assert
+        verify(transactionTemplate, times(PersonServices.MAX_WRITE_ATTEMPTS)).execute(any());
+    }
+    @DisplayName("JUnit test Given Concurrent Commit when patch Person With Version then Throws PreconditionFailedException")
+    @Test
+    void testGivenConcurrentCommit_whenPatchPersonWithVersion_thenThrowsPreconditionFailedException() {
+        //Given / Arrange
+        person0.setId(1L);
+        person0.setVersion(3L);
+        given(repository.findById(1L)).willReturn(Optional.of(person0));
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        willThrow(new OptimisticLockException("Row was updated by another transaction"))
+                .given(entityManager).flush();
+
+        //When / Act
+        assertThrows(PreconditionFailedException.class, () -> services.patch(1L, Map.of("firstName", "Hugo"), 3L));
+        //Then / Assert
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(searchIndex, never()).put(any(Person.class));
+    }
+    @DisplayName("JUnit test Given Write Behind Enabled when Update Person then Submit Without Loading")
+    @Test
+    void testGivenWriteBehindEnabled_whenUpdatePerson_thenSubmitWithoutLoading() {
+        //Given / Arrange
+        person0.setId(1L);
+        given(writeBehind.isEnabled()).willReturn(true);
+        given(writeBehind.submit(person0)).willReturn(person0);
+
+        //When / Act
+        Person updatedPerson = services.update(person0);
+        //Then / Assert
+        assertSame(person0, updatedPerson);
+        verify(repository, never()).findById(anyLong());
+        verify(repository, never()).save(any(Person.class));
+    }
+    @DisplayName("JUnit test Given Stale Version when Update Person then Throws Exception")
+    @Test
+    void testGivenStaleVersion_whenUpdatePerson_thenThrowsException() {
+        //Given / Arrange
+        person0.setId(1L);
+        person0.setVersion(4L);
+        Person stale = new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com.br");
+        stale.setVersion(3L);
+        given(repository.findById(1L)).willReturn(Optional.of(person0));
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        //When / Act
+        assertThrows(PreconditionFailedException.class, () -> services.update(stale));
+        //Then / Assert
+        verify(repository, never()).save(any(Person.class));
+        assertEquals("Marcos", person0.getFirstName());
     }
     @DisplayName("JUnit test Given Person Id when delete Person then do Nothing ")
     @Test
     void testGivenPersonId_whenDeletePerson_thenDoNothing() {
         //Given / Arrange
         person0.setId(1L);
-        given(repository.findById(anyLong())).willReturn(Optional.of(person0));
-        willDoNothing().given(repository).delete(person0);
+        given(repository.deleteByIdReturningCount(1L)).willReturn(1);
 
         //When / Act
         services.delete(person0.getId());
         //Then / Assert
-        verify(repository, times(1)).delete(person0);
+        verify(repository, times(1)).deleteByIdReturningCount(1L);
+        verify(repository, never()).findById(anyLong());
+        verify(changeFeed, times(1)).recordDeleted(1L);
+        verify(singleFlight, times(1)).forget("findById", 1L);
+    }
+
+    @DisplayName("JUnit test Given Stale Version when delete Person then throws PreconditionFailedException")
+    @Test
+    void testGivenStaleVersion_whenDeletePerson_thenThrowsPreconditionFailedException() {
+        //Given / Arrange
+        given(repository.deleteByIdAndVersion(1L, 2L)).willReturn(0);
+        given(repository.findVersionById(1L)).willReturn(Optional.of(3L));
+
+        //When / Act
+        assertThrows(PreconditionFailedException.class, () -> services.delete(1L, 2L));
+        //Then / Assert
+        verify(searchIndex, never()).remove(anyLong());
+        verify(changeFeed, never()).recordDeleted(anyLong());
     }
 }
 
@@ -0,0 +1,232 @@
+package br.com.marcos.services;
+
+import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.model.Person;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersonSingleFlightTest {
+
+    private static final int CALLERS = 50;
+
+    private PersonSingleFlight singleFlight;
+    private SimpleMeterRegistry registry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        singleFlight = new PersonSingleFlight();
+        singleFlight.registry = registry;
+        singleFlight.registerMetrics();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @DisplayName("JUnit test Given Concurrent Identical Reads when Execute then Run The Loader Once And Share The Result")
+    @Test
+    void testGivenConcurrentIdenticalReads_whenExecute_thenRunTheLoaderOnceAndShareTheResult() throws Exception {
+        //Given / Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        //When / Act
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("findById", 1L, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "Marcos";
+            })));
+        }
+        awaitCount("coalesced", CALLERS - 1);
+        release.countDown();
+
+        //Then / Assert
+        for (Future<String> result : results) {
+            assertEquals("Marcos", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1.0, counter("leader").count());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @DisplayName("JUnit test Given Coalesced Callers when One Changes Its Person then Others Keep Their Own Copy")
+    @Test
+    void testGivenCoalescedCallers_whenOneChangesItsPerson_thenOthersKeepTheirOwnCopy() throws Exception {
+        //Given / Arrange
+        Person loaded = new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com");
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Person>> results = new ArrayList<>();
+
+        //When / Act
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("findById", 1L, () -> {
+                await(release);
+                return loaded;
+            }, Person::new)));
+        }
+        awaitCount("coalesced", CALLERS - 1);
+        release.countDown();
+        Set<Person> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<Person> result : results) {
+            instances.add(result.get(5, TimeUnit.SECONDS));
+        }
+        loaded.setFirstName("Hugo");
+
+        //Then / Assert
+        assertEquals(CALLERS, instances.size());
+        assertEquals(CALLERS - 1, instances.stream().filter(person -> person.getFirstName().equals("Marcos")).count());
+    }
+
+    @DisplayName("JUnit test Given Different Arguments when Execute then Do Not Coalesce")
+    @Test
+    void testGivenDifferentArguments_whenExecute_thenDoNotCoalesce() {
+        //Given / Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        //When / Act
+        singleFlight.execute("findPage", List.of(0L, 10), loads::incrementAndGet);
+        singleFlight.execute("findPage", List.of(10L, 10), loads::incrementAndGet);
+        singleFlight.execute("findById", 1L, loads::incrementAndGet);
+
+        //Then / Assert
+        assertEquals(3, loads.get());
+        assertEquals(3.0, registry.get(PersonSingleFlight.REQUESTS).tag("outcome", "leader").counters()
+                .stream().mapToDouble(Counter::count).sum());
+    }
+
+    @DisplayName("JUnit test Given Update Committed During A Flight when Read Again then Start A New Flight With The New Value")
+    @Test
+    void testGivenUpdateCommittedDuringAFlight_whenReadAgain_thenStartANewFlightWithTheNewValue() throws Exception {
+        //Given / Arrange
+        AtomicReference<String> row = new AtomicReference<>("Marcos");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> before = executor.submit(() -> singleFlight.execute("findById", 1L, () -> {
+            //The query sees the row as it was before the update
+            String read = row.get();
+            if (loads.incrementAndGet() == 1) {
+                started.countDown();
+                await(release);
+            }
+            return read;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        //When / Act: what PersonServices does in afterCommit of an update
+        row.set("Marcos Henrique");
+        singleFlight.forget("findById", 1L);
+        String after = singleFlight.execute("findById", 1L, () -> {
+            loads.incrementAndGet();
+            return row.get();
+        });
+        release.countDown();
+
+        //Then / Assert
+        assertEquals("Marcos Henrique", after);
+        assertEquals("Marcos", before.get(5, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @DisplayName("JUnit test Given Delete Committed During A Flight when Read Again then Return Empty")
+    @Test
+    void testGivenDeleteCommittedDuringAFlight_whenReadAgain_thenReturnEmpty() throws Exception {
+        //Given / Arrange
+        AtomicReference<String> row = new AtomicReference<>("Marcos");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Optional<String>> before = executor.submit(() -> singleFlight.execute("findById", 1L, () -> {
+            Optional<String> read = Optional.ofNullable(row.get());
+            started.countDown();
+            await(release);
+            return read;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        //When / Act
+        row.set(null);
+        singleFlight.forget("findById", 1L);
+        Optional<String> after = singleFlight.execute("findById", 1L, () -> Optional.ofNullable(row.get()));
+        release.countDown();
+
+        //Then / Assert
+        assertTrue(after.isEmpty());
+        assertEquals(Optional.of("Marcos"), before.get(5, TimeUnit.SECONDS));
+    }
+
+    @DisplayName("JUnit test Given Failing Loader when Execute then Every Waiting Caller Gets The Exception")
+    @Test
+    void testGivenFailingLoader_whenExecute_thenEveryWaitingCallerGetsTheException() throws Exception {
+        //Given / Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        //When / Act
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.<String>execute("findById", 9L, () -> {
+                await(release);
+                throw new ResourceNotFoundException("No records found for this id");
+            })));
+        }
+        awaitCount("coalesced", CALLERS - 1);
+        release.countDown();
+
+        //Then / Assert
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceNotFoundException.class, e.getCause());
+        }
+        assertEquals(0, singleFlight.size());
+        assertEquals("again", singleFlight.execute("findById", 9L, () -> "again"));
+    }
+
+    private Counter counter(String outcome) {
+        return registry.get(PersonSingleFlight.REQUESTS).tag("outcome", outcome).counter();
+    }
+
+    private void awaitCount(String outcome, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.find(PersonSingleFlight.REQUESTS).tag("outcome", outcome).counter() == null
+                || counter(outcome).count() < expected) {
+            assertTrue(System.nanoTime() < deadline, "callers did not join the flight in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.marcos.services;
+
+import br.com.marcos.model.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersonSnapshotTest {
+
+    private PersonSnapshot snapshot;
+
+    @BeforeEach
+    public void setup() {
+        snapshot = new PersonSnapshot();
+        snapshot.enabled = true;
+        snapshot.registry = new SimpleMeterRegistry();
+        snapshot.registerMetrics();
+    }
+
+    @DisplayName("JUnit test Given Loaded Snapshot when findById then Return Same Fields")
+    @Test
+    void testGivenLoadedSnapshot_whenFindById_thenReturnSameFields() {
+        //Given / Arrange
+        Person person = new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", null);
+        person.setVersion(3L);
+        snapshot.load(person);
+        snapshot.markLoaded();
+
+        //When / Act
+        Person found = snapshot.findById(1L).orElseThrow();
+
+        //Then / Assert
+        assertTrue(snapshot.isReady());
+        assertEquals(person, found);
+        assertNull(found.getEmail());
+        assertEquals(3L, found.getVersion());
+        assertTrue(snapshot.findById(2L).isEmpty());
+    }
+
+    @DisplayName("JUnit test Given Write During Load when Stale Row Is Loaded then Keep Written Row")
+    @Test
+    void testGivenWriteDuringLoad_whenStaleRowIsLoaded_thenKeepWrittenRow() {
+        //Given / Arrange
+        snapshot.put(new Person(1L, "Hugo", "Dutra", "Uberlândia - MG - Brasil", "Male", "hugo@gmail.com"));
+        snapshot.remove(2L);
+
+        //When / Act
+        snapshot.load(new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com"));
+        snapshot.load(new Person(2L, "André", "Pereira", "São Paulo - SP - Brasil", "Male", "andrep@hotmail.com"));
+        snapshot.markLoaded();
+
+        //Then / Assert
+        assertEquals("Hugo", snapshot.findById(1L).orElseThrow().getFirstName());
+        assertTrue(snapshot.findById(2L).isEmpty());
+    }
+
+    @DisplayName("JUnit test Given Many Updates and Deletes when findAll then Return Only Live Rows")
+    @Test
+    void testGivenManyUpdatesAndDeletes_whenFindAll_thenReturnOnlyLiveRows() {
+        //Given / Arrange
+        for (long id = 1; id <= 5_000; id++) {
+            snapshot.put(new Person(id, "Name" + id, "Dutra", "Uberlândia - MG - Brasil", id % 2 == 0 ? "Male" : "Female", id + "@gmail.com"));
+        }
+
+        //When / Act
+        for (long id = 1; id <= 5_000; id++) {
+            if (id % 3 == 0) snapshot.remove(id);
+            else snapshot.put(new Person(id, "Renamed" + id, "Dutra", "São Paulo - SP - Brasil", "Male", id + "@gmail.com"));
+        }
+        List<Person> people = snapshot.findAll();
+
+        //Then / Assert
+        assertEquals(3_334, people.size());
+        assertEquals(3_334, snapshot.size());
+        assertTrue(people.stream().allMatch(person -> person.getFirstName().equals("Renamed" + person.getId())));
+        assertEquals("São Paulo - SP - Brasil", snapshot.findById(4_999L).orElseThrow().getAddress());
+    }
+
+    @DisplayName("JUnit test Given Ids Written Out Of Order when findPage then Return Keyset Pages In Id Order")
+    @Test
+    void testGivenIdsWrittenOutOfOrder_whenFindPage_thenReturnKeysetPagesInIdOrder() {
+        //Given / Arrange
+        for (long id : new long[]{5, 1, 9, 3, 7}) {
+            snapshot.put(new Person(id, "Name" + id, "Dutra", "Uberlândia - MG - Brasil", "Male", id + "@gmail.com"));
+        }
+        snapshot.put(new Person(3L, "Renamed3", "Dutra", "Uberlândia - MG - Brasil", "Male", "3@gmail.com"));
+        snapshot.remove(7L);
+
+        //When / Act
+        List<Person> first = snapshot.findPage(0L, 2);
+        List<Person> second = snapshot.findPage(3L, 10);
+
+        //Then / Assert
+        assertEquals(List.of(1L, 3L), first.stream().map(Person::getId).toList());
+        assertEquals("Renamed3", first.get(1).getFirstName());
+        assertEquals(List.of(5L, 9L), second.stream().map(Person::getId).toList());
+        assertTrue(snapshot.findPage(9L, 10).isEmpty());
+    }
+
+    @DisplayName("JUnit test Given Disabled Snapshot when Created then Allocate No Direct Memory")
+    @Test
+    void testGivenDisabledSnapshot_whenCreated_thenAllocateNoDirectMemory() {
+        //Given / Arrange
+        PersonSnapshot disabled = new PersonSnapshot();
+
+        //When / Act
+        disabled.put(new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com"));
+
+        //Then / Assert
+        assertEquals(0, disabled.offHeapBytes());
+        assertTrue(disabled.findPage(0L, 10).isEmpty());
+        assertTrue(disabled.findById(1L).isEmpty());
+    }
+
+    @DisplayName("JUnit test Given Churning Genders And Addresses when Compacted then Dictionary Holds Only Live Values")
+    @Test
+    void testGivenChurningGendersAndAddresses_whenCompacted_thenDictionaryHoldsOnlyLiveValues() {
+        //Given / Arrange
+        snapshot.put(new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com"));
+
+        //When / Act
+        for (int i = 0; i < 10_000; i++) {
+            snapshot.put(new Person(2L, "Hugo", "Dutra", "Street " + i, "Gender " + i, "hugo@gmail.com"));
+        }
+
+        //Then / Assert
+        //Every value was unique, without the rebuild the dictionary would hold all 10001 of them
+        assertTrue(snapshot.dictionarySize() < 1024, "dictionary size " + snapshot.dictionarySize());
+        Person last = snapshot.findById(2L).orElseThrow();
+        assertEquals("Street 9999", last.getAddress());
+        assertEquals("Gender 9999", last.getGender());
+        assertEquals("Male", snapshot.findById(1L).orElseThrow().getGender());
+    }
+}
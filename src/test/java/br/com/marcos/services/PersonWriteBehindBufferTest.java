@@ -0,0 +1,111 @@
+package br.com.marcos.services;
+
+import br.com.marcos.exceptions.ResourceNotFoundException;
+import br.com.marcos.exceptions.ServiceUnavailableException;
+import br.com.marcos.model.BatchItemResult;
+import br.com.marcos.model.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class PersonWriteBehindBufferTest {
+
+    private PersonWriteBehindBuffer buffer;
+    private PersonServices services;
+
+    @BeforeEach
+    public void setup() {
+        services = mock(PersonServices.class);
+        buffer = new PersonWriteBehindBuffer();
+        buffer.services = services;
+        buffer.registry = new SimpleMeterRegistry();
+        buffer.ack = "async";
+        buffer.maxBatch = 500;
+        buffer.maxPending = 10_000;
+        //Not enabled: no scheduler, the test flushes by hand
+        buffer.start();
+    }
+
+    @DisplayName("JUnit test Given Repeated Updates Of One Id when Flush then Write Only The Last One")
+    @Test
+    void testGivenRepeatedUpdatesOfOneId_whenFlush_thenWriteOnlyTheLastOne() {
+        //Given / Arrange
+        given(services.updateAll(anyList())).willReturn(List.of(
+                BatchItemResult.of(0, 1L, BatchItemResult.Status.UPDATED),
+                BatchItemResult.of(1, 2L, BatchItemResult.Status.UPDATED)));
+        buffer.submit(new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com"));
+        buffer.submit(new Person(2L, "André", "Pereira", "São Paulo - SP - Brasil", "Male", "andrep@hotmail.com"));
+        buffer.submit(new Person(1L, "Marcos", "Dutra", "São Paulo - SP - Brasil", "Male", "mhredbluz@gmail.com"));
+
+        //When / Act
+        buffer.flush();
+
+        //Then / Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Person>> written = ArgumentCaptor.forClass(List.class);
+        verify(services, times(1)).updateAll(written.capture());
+        assertEquals(2, written.getValue().size());
+        assertEquals("São Paulo - SP - Brasil", written.getValue().get(0).getAddress());
+        assertEquals(0, buffer.size());
+        assertEquals(1.0, buffer.registry.get("person.writebehind.coalesced").counter().count());
+    }
+
+    @DisplayName("JUnit test Given Sync Ack when Submit then Return The Committed Person With Its New Version")
+    @Test
+    void testGivenSyncAck_whenSubmit_thenReturnTheCommittedPersonWithItsNewVersion() {
+        //Given / Arrange
+        buffer.ack = "sync";
+        buffer.maxPending = 1;
+        BatchItemResult updated = BatchItemResult.of(0, 1L, BatchItemResult.Status.UPDATED);
+        updated.setVersion(4L);
+        given(services.updateAll(anyList())).willReturn(List.of(updated));
+        Person submitted = new Person(1L, "Marcos", "Dutra", "São Paulo - SP - Brasil", "Male", "mhredbluz@gmail.com");
+
+        //When / Act
+        Person committed = buffer.submit(submitted);
+
+        //Then / Assert
+        assertEquals(4L, committed.getVersion());
+        assertEquals("São Paulo - SP - Brasil", committed.getAddress());
+        assertNotSame(submitted, committed);
+        assertNull(submitted.getVersion());
+    }
+
+    @DisplayName("JUnit test Given Sync Ack And No Flush when Submit then Throws ServiceUnavailableException")
+    @Test
+    void testGivenSyncAckAndNoFlush_whenSubmit_thenThrowsServiceUnavailableException() {
+        //Given / Arrange
+        buffer.ack = "sync";
+        buffer.ackTimeoutMs = 10;
+
+        //When / Act
+        assertThrows(ServiceUnavailableException.class, () ->
+                buffer.submit(new Person(1L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com")));
+        //Then / Assert
+        assertEquals(1, buffer.size());
+    }
+
+    @DisplayName("JUnit test Given Sync Ack And Missing Person when Submit then Throws ResourceNotFoundException")
+    @Test
+    void testGivenSyncAckAndMissingPerson_whenSubmit_thenThrowsResourceNotFoundException() {
+        //Given / Arrange
+        buffer.ack = "sync";
+        buffer.maxPending = 1;
+        given(services.updateAll(anyList())).willReturn(List.of(BatchItemResult.notFound(0, 9L)));
+
+        //When / Act
+        assertThrows(ResourceNotFoundException.class, () ->
+                buffer.submit(new Person(9L, "Marcos", "Dutra", "Uberlândia - MG - Brasil", "Male", "mhredbluz@gmail.com")));
+        //Then / Assert
+        verify(services, times(1)).updateAll(anyList());
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.marcos.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @DisplayName("JUnit test Given Entries when put and get then Return Values Or Default")
+    @Test
+    void testGivenEntries_whenPutAndGet_thenReturnValuesOrDefault() {
+        //Given / Arrange
+        LongIntHashMap map = new LongIntHashMap();
+
+        //When / Act
+        map.put(0L, 7);
+        map.put(42L, 1);
+        int previous = map.put(42L, 2, -1);
+
+        //Then / Assert
+        assertEquals(1, previous);
+        assertEquals(7, map.get(0L, -1));
+        assertEquals(2, map.get(42L, -1));
+        assertEquals(-1, map.get(43L, -1));
+        assertEquals(2, map.size());
+    }
+
+    @DisplayName("JUnit test Given Random Operations when compared with HashMap then Same Contents")
+    @Test
+    void testGivenRandomOperations_whenComparedWithHashMap_thenSameContents() {
+        //Given / Arrange
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        //When / Act
+        for (int i = 0; i < 200_000; i++) {
+            //Small key range so probe runs collide and removals shift entries back often
+            long key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? -1 : removed, map.remove(key, -1));
+            } else {
+                expected.put(key, i);
+                map.put(key, i);
+            }
+        }
+
+        //Then / Assert
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key, -1)));
+        map.forEach((key, value) -> assertEquals(expected.get(key), value));
+        assertEquals(expected.size(), map.keys().length);
+    }
+
+    @DisplayName("JUnit test Given Map when replaceValues then Every Value Is Mapped")
+    @Test
+    void testGivenMap_whenReplaceValues_thenEveryValueIsMapped() {
+        //Given / Arrange
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(0L, 1);
+        map.put(10L, 2);
+
+        //When / Act
+        map.replaceValues(value -> value * 10);
+
+        //Then / Assert
+        assertEquals(10, map.get(0L, -1));
+        assertEquals(20, map.get(10L, -1));
+    }
+}